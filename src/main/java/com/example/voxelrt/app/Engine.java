@@ -19,11 +19,15 @@ import com.example.voxelrt.util.Profiler;
 import com.example.voxelrt.world.ActiveRegion;
 import com.example.voxelrt.world.Blocks;
 import com.example.voxelrt.world.Chunk;
+import com.example.voxelrt.world.ChunkEvent;
+import com.example.voxelrt.world.ChunkEventQueue;
 import com.example.voxelrt.world.ChunkManager;
+import com.example.voxelrt.world.ChunkNeighborhood;
 import com.example.voxelrt.world.ChunkPos;
 import com.example.voxelrt.world.Physics;
 import com.example.voxelrt.world.WorldGenerator;
 import com.example.voxelrt.world.WorldStorage;
+import com.example.voxelrt.world.WorldView;
 
 import org.joml.Matrix4f;
 import org.joml.Vector3f;
@@ -132,6 +136,9 @@ public class Engine {
     private WorldGenerator generator;
     private WorldStorage worldStorage;
     private ChunkManager chunkManager;
+    private ChunkEventQueue chunkEvents;
+    private final java.util.LinkedHashMap<ChunkPos, Chunk> residentChunks = new java.util.LinkedHashMap<>();
+    private final java.util.LinkedHashSet<ChunkPos> meshDirtyChunks = new java.util.LinkedHashSet<>();
     private ActiveRegion region;
     private static final int[] BLOCK_PALETTE = {
             Blocks.GRASS,
@@ -169,6 +176,7 @@ public class Engine {
     private static final float PREFETCH_DIRECTION_THRESHOLD = 0.15f;
     private static final int PREFETCH_MARGIN = 48;
     private static final int REGION_PREFETCH_MARGIN_CHUNKS = PREFETCH_LOOKAHEAD_CHUNKS + 1;
+    private static final int CLIMATE_PREFETCH_MARGIN_CHUNKS = 6;
     private static final int MAX_DYNAMIC_LIGHTS = 8;
     private final Vector3f lastPrefetchPosition = new Vector3f();
     private int prefetchedEast = Integer.MIN_VALUE;
@@ -182,6 +190,7 @@ public class Engine {
     private int activeRegionMargin = 24;
     private int streamingCenterChunkX;
     private int streamingCenterChunkZ;
+    private ChunkPos climatePrefetchCenter;
 
     private final LightManager lightManager = new LightManager();
     private final java.util.ArrayList<DynamicLight> activeLightsScratch = new java.util.ArrayList<>(MAX_DYNAMIC_LIGHTS);
@@ -217,6 +226,8 @@ public class Engine {
     private int profilerCompletedChunks = 0;
     private int profilerChunkPool = 0;
     private int profilerMaxLoadedChunks = 0;
+    private ChunkManager.CacheStats profilerCacheStats = null;
+    private WorldStorage.StorageStats profilerStorageStats = null;
     private int profilerDynamicBodies = 0;
     private int profilerDebrisCount = 0;
     private int profilerStaticBodyCount = 0;
@@ -469,11 +480,12 @@ public class Engine {
     }
 
     private static int findTopSolidY(ChunkManager cm, int x, int z) {
+        int[] column = new int[Chunk.SY];
+        cm.readBox(x, 0, z, 1, Chunk.SY, 1, column);
         for (int y = Chunk.SY - 2; y >= 0; y--) {
-            int b = cm.sample(x, y, z);
-            if (b != Blocks.AIR) {
-                boolean headFree = (y + 1 < Chunk.SY && cm.sample(x, y + 1, z) == Blocks.AIR)
-                        && (y + 2 >= Chunk.SY || cm.sample(x, y + 2, z) == Blocks.AIR);
+            if (column[y] != Blocks.AIR) {
+                boolean headFree = column[y + 1] == Blocks.AIR
+                        && (y + 2 >= Chunk.SY || column[y + 2] == Blocks.AIR);
                 if (headFree) return y;
             }
         }
@@ -509,16 +521,19 @@ public class Engine {
         vaoQuad = glGenVertexArrays();
         createOutputTexture();
 
-        generator = new WorldGenerator(1337L, 62);
         EngineConfig config = EngineConfig.load();
+        generator = new WorldGenerator(1337L, 62, config.densityMode());
         viewDistanceChunks = config.viewDistanceChunks();
         streamingRequestRadiusChunks = viewDistanceChunks + REGION_PREFETCH_MARGIN_CHUNKS;
         unloadDistanceChunks = streamingRequestRadiusChunks + 1;
-        worldStorage = new WorldStorage(config.worldDirectory());
-        chunkManager = new ChunkManager(generator, config.chunkCacheSize(), worldStorage);
+        worldStorage = new WorldStorage(config.worldDirectory(), config.storageReadMode(), config.storageQueueLimit());
+        chunkManager = new ChunkManager(generator, config.chunkCacheSize(), worldStorage, config.chunkCacheBudgetBytes(),
+                config.climateCacheSize());
+        chunkEvents = chunkManager.subscribe();
         chunkIntegrationBudget = config.chunkIntegrationBudget();
         System.out.println("[Engine] Chunk integration budget set to " + chunkIntegrationBudget + " per frame");
-        System.out.println("[Engine] Chunk cache capacity set to " + chunkManager.getMaxLoaded() + " chunks");
+        System.out.println("[Engine] Chunk cache capacity set to " + chunkManager.getMaxLoaded() + " chunks, "
+                + formatMegabytes(chunkManager.getCacheBudgetBytes()) + " MB budget");
 
         // Spawn above ground
         int spawnX = (int) Math.floor(camera.position.x);
@@ -772,29 +787,71 @@ public class Engine {
         glBindTexture(GL_TEXTURE_3D, 0);
     }
 
-    private void rebuildChunkMeshes(java.util.List<Chunk> chunks) {
-        if (chunks.isEmpty()) {
+    /**
+     * Replays chunk lifecycle events into the resident set and the set of chunks awaiting a mesh
+     * rebuild, and drops the static colliders of evicted chunks.
+     */
+    private void applyChunkEvents() {
+        ChunkEvent event;
+        while ((event = chunkEvents.poll()) != null) {
+            ChunkPos pos = event.pos();
+            switch (event.type()) {
+                case INTEGRATED -> {
+                    residentChunks.put(pos, event.chunk());
+                    meshDirtyChunks.add(pos);
+                }
+                case EVICTED -> {
+                    if (residentChunks.get(pos) == event.chunk()) {
+                        residentChunks.remove(pos);
+                        meshDirtyChunks.remove(pos);
+                        if (physicsSystem != null) {
+                            physicsSystem.removeStaticChunk(pos);
+                        }
+                    }
+                }
+                case EDITED, MESH_DIRTY -> {
+                    if (residentChunks.containsKey(pos)) {
+                        meshDirtyChunks.add(pos);
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuildChunkMeshes() {
+        if (meshDirtyChunks.isEmpty()) {
             return;
         }
-        for (Chunk chunk : chunks) {
-            if (!chunk.isMeshDirty()) {
+        // Mesh from a frozen view, so neighbours are read without holding the chunk manager lock.
+        WorldView worldView = chunkManager.publishView();
+        for (ChunkPos pos : meshDirtyChunks) {
+            Chunk chunk = residentChunks.get(pos);
+            if (chunk == null) {
                 continue;
             }
-            MeshBuilder.MeshData data = MeshBuilder.build(chunk, chunkManager);
-            if (physicsSystem != null) {
-                physicsSystem.updateStaticChunkCollider(chunk, data);
+            int dirtySections = chunk.takeDirtySections();
+            if (dirtySections == 0) {
+                continue;
             }
             ChunkMesh old = chunk.mesh();
-            ChunkMesh nextMesh = null;
-            if (data.instanceCount() > 0) {
-                nextMesh = ChunkMesh.create(data.instanceData(), data.instanceCount());
+            MeshBuilder.MeshData previous = old != null
+                    ? new MeshBuilder.MeshData(old.instanceData(), old.instanceCount(), old.sectionOffsets())
+                    : null;
+            ChunkNeighborhood hood = worldView.captureNeighborhood(pos);
+            if (hood == null) {
+                hood = chunkManager.captureNeighborhood(chunk);
+            }
+            MeshBuilder.MeshData data = MeshBuilder.rebuild(hood, previous, dirtySections);
+            if (physicsSystem != null) {
+                physicsSystem.updateStaticChunkCollider(chunk, data);
             }
+            ChunkMesh nextMesh = ChunkMesh.create(data.instanceData(), data.instanceCount(), data.sectionOffsets());
             if (old != null) {
                 old.destroy();
             }
             chunk.setMesh(nextMesh);
-            chunk.clearMeshDirty();
         }
+        meshDirtyChunks.clear();
     }
 
     private void renderChunkMeshes(Matrix4f proj, Matrix4f view, java.util.List<Chunk> chunks) {
@@ -890,11 +947,15 @@ public class Engine {
                 if (pos == null) {
                     continue;
                 }
+                int lowestY = chunk.minNonAirY();
+                if (lowestY < 0) {
+                    continue;
+                }
                 float minX = pos.cx() * Chunk.SX;
                 float minZ = pos.cz() * Chunk.SZ;
                 float maxX = minX + Chunk.SX;
                 float maxZ = minZ + Chunk.SZ;
-                debugRenderer.addWireBox(minX, 0f, minZ, maxX, Chunk.SY, maxZ, 0.25f, 0.7f, 1.0f, 0.4f);
+                debugRenderer.addWireBox(minX, lowestY, minZ, maxX, chunk.maxNonAirY() + 1f, maxZ, 0.25f, 0.7f, 1.0f, 0.4f);
             }
         }
 
@@ -1010,6 +1071,35 @@ public class Engine {
                     0.75f, 0.85f, 1.0f, 1f);
             hudY += 14f;
 
+            if (profilerCacheStats != null) {
+                debugRenderer.addText(hudX, hudY, hudScale,
+                        String.format("Chunk cache: %s / %s MB | resident %s MB | compressed %s MB (%d) | sparse %s MB (%d)",
+                                formatMegabytes(profilerCacheStats.totalBytes()),
+                                formatMegabytes(profilerCacheStats.budgetBytes()),
+                                formatMegabytes(profilerCacheStats.residentBytes()),
+                                formatMegabytes(profilerCacheStats.compressedBytes()),
+                                profilerCacheStats.compressedSnapshots(),
+                                formatMegabytes(profilerCacheStats.sparseBytes()),
+                                profilerCacheStats.sparseSnapshots()),
+                        0.75f, 0.85f, 1.0f, 1f);
+                hudY += 14f;
+            }
+
+            if (profilerStorageStats != null) {
+                debugRenderer.addText(hudX, hudY, hudScale,
+                        String.format("Storage: queue %d/%d (peak %d) | writing %d | written %d | coalesced %d | %s MB out | stalls %d",
+                                profilerStorageStats.queuedSaves(),
+                                profilerStorageStats.maxQueuedSaves(),
+                                profilerStorageStats.peakQueuedSaves(),
+                                profilerStorageStats.writingSaves(),
+                                profilerStorageStats.writtenChunks(),
+                                profilerStorageStats.coalescedSaves(),
+                                formatMegabytes(profilerStorageStats.bytesWritten()),
+                                profilerStorageStats.backpressureWaits()),
+                        0.75f, 0.85f, 1.0f, 1f);
+                hudY += 14f;
+            }
+
             debugRenderer.addText(hudX, hudY, hudScale,
                     String.format("Physics: %d dynamic | %d static | debris: %d",
                             profilerDynamicBodies, profilerStaticBodyCount, profilerDebrisCount),
@@ -1047,7 +1137,7 @@ public class Engine {
         debugRenderer.renderText(width, height);
     }
 
-    private java.util.List<Chunk> filterVisibleChunks(java.util.List<Chunk> chunks, Frustum frustum) {
+    private java.util.List<Chunk> filterVisibleChunks(java.util.Collection<Chunk> chunks, Frustum frustum) {
         if (chunks.isEmpty()) {
             return java.util.Collections.emptyList();
         }
@@ -1071,12 +1161,16 @@ public class Engine {
         if (pos == null) {
             return false;
         }
+        int lowestY = chunk.minNonAirY();
+        if (lowestY < 0) {
+            return false;
+        }
         float minX = pos.cx() * Chunk.SX;
         float minZ = pos.cz() * Chunk.SZ;
-        float minY = 0f;
+        float minY = lowestY;
         float maxX = minX + Chunk.SX;
         float maxZ = minZ + Chunk.SZ;
-        float maxY = Chunk.SY;
+        float maxY = chunk.maxNonAirY() + 1f;
         return frustum.intersectsAABB(minX, minY, minZ, maxX, maxY, maxZ);
     }
 
@@ -1127,14 +1221,14 @@ public class Engine {
             int playerChunkZ = java.lang.Math.floorDiv(cz, Chunk.SZ);
             streamingCenterChunkX = playerChunkX;
             streamingCenterChunkZ = playerChunkZ;
+            Vector3f forward = camera.getForward();
+            chunkManager.setGenerationFocus(camera.position.x, camera.position.z, forward.x, forward.z);
             chunkManager.unloadOutsideRadius(new ChunkPos(playerChunkX, playerChunkZ), unloadDistanceChunks);
+            prefetchClimateAround(new ChunkPos(playerChunkX, playerChunkZ));
 
-            java.util.List<Chunk> loadedChunks = chunkManager.snapshotLoadedChunks();
-            if (physicsSystem != null) {
-                physicsSystem.pruneStaticChunks(loadedChunks);
-            }
+            applyChunkEvents();
             try (Profiler.Sample ignored = profileSection("Mesh Rebuild", 2)) {
-                rebuildChunkMeshes(loadedChunks);
+                rebuildChunkMeshes();
             }
 
             int margin = activeRegionMargin;
@@ -1174,7 +1268,7 @@ public class Engine {
 
             updatePrefetch();
 
-            java.util.List<Chunk> visibleChunks = filterVisibleChunks(loadedChunks, frustum);
+            java.util.List<Chunk> visibleChunks = filterVisibleChunks(residentChunks.values(), frustum);
 
             try (Profiler.Sample ignored = profileSection("Light Update", 2)) {
                 updateDynamicLights(now, dt);
@@ -1327,7 +1421,7 @@ public class Engine {
             }
 
             profilerVisibleChunks = visibleChunks != null ? visibleChunks.size() : 0;
-            profilerLoadedChunks = loadedChunks.size();
+            profilerLoadedChunks = residentChunks.size();
             try (Profiler.Sample ignored = profileSection("Debug Overlay", 2)) {
                 renderDebugOverlays(proj, view, visibleChunks);
             }
@@ -1378,11 +1472,15 @@ public class Engine {
             profilerCompletedChunks = chunkManager.completedGenerationCount();
             profilerChunkPool = chunkManager.chunkPoolSize();
             profilerMaxLoadedChunks = chunkManager.maxLoadedChunks();
+            profilerCacheStats = chunkManager.cacheStats();
+            profilerStorageStats = worldStorage != null ? worldStorage.stats() : null;
         } else {
             profilerPendingChunks = 0;
             profilerCompletedChunks = 0;
             profilerChunkPool = 0;
             profilerMaxLoadedChunks = 0;
+            profilerCacheStats = null;
+            profilerStorageStats = null;
         }
         if (physicsSystem != null) {
             profilerDynamicBodies = physicsSystem.dynamicBodyCount();
@@ -1415,6 +1513,16 @@ public class Engine {
         System.out.printf("[Profiler] Chunks loaded=%d/%d visible=%d pending=%d completed=%d pool=%d%n",
                 profilerLoadedChunks, profilerMaxLoadedChunks, profilerVisibleChunks,
                 profilerPendingChunks, profilerCompletedChunks, profilerChunkPool);
+        if (profilerCacheStats != null) {
+            System.out.printf("[Profiler] Chunk cache %s/%s MB resident=%s MB compressed=%s MB (%d) sparse=%s MB (%d)%n",
+                    formatMegabytes(profilerCacheStats.totalBytes()),
+                    formatMegabytes(profilerCacheStats.budgetBytes()),
+                    formatMegabytes(profilerCacheStats.residentBytes()),
+                    formatMegabytes(profilerCacheStats.compressedBytes()),
+                    profilerCacheStats.compressedSnapshots(),
+                    formatMegabytes(profilerCacheStats.sparseBytes()),
+                    profilerCacheStats.sparseSnapshots());
+        }
         System.out.printf("[Profiler] Physics dynamic=%d static=%d debris=%d%n",
                 profilerDynamicBodies, profilerStaticBodyCount, profilerDebrisCount);
         if (!snapshot.sections().isEmpty()) {
@@ -1661,6 +1769,20 @@ public class Engine {
         clampPrefetchBoundsToRadius();
     }
 
+    /**
+     * Queues the cheap column stage for a ring beyond the streaming radius whenever the player
+     * enters a new chunk, so heightmaps exist before the volume stages are requested.
+     */
+    private void prefetchClimateAround(ChunkPos center) {
+        if (center.equals(climatePrefetchCenter)) {
+            return;
+        }
+        climatePrefetchCenter = center;
+        int radius = streamingRequestRadiusChunks + CLIMATE_PREFETCH_MARGIN_CHUNKS;
+        chunkManager.cancelClimateOutsideRadius(center, radius);
+        chunkManager.prefetchClimate(center, radius);
+    }
+
     private void requestColumn(int chunkX, int minChunkZ, int maxChunkZ) {
         for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
             if (!isWithinStreamingRadius(chunkX, chunkZ)) {
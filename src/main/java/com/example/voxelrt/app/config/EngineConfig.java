@@ -2,6 +2,8 @@ package com.example.voxelrt.app.config;
 
 import com.example.voxelrt.world.Chunk;
 import com.example.voxelrt.world.ChunkManager;
+import com.example.voxelrt.world.WorldGenerator;
+import com.example.voxelrt.world.WorldStorage;
 
 import java.nio.file.Path;
 
@@ -13,39 +15,74 @@ import java.nio.file.Path;
  * render loop instead of parsing configuration in multiple places.
  */
 public final class EngineConfig {
+    /**
+     * Distance beyond the view distance that the engine prefetches chunk climates: the streaming
+     * margin plus the climate ring queued past it.
+     */
+    private static final int CLIMATE_PREFETCH_MARGIN_CHUNKS = 9;
+    /**
+     * Upper bound on cached chunk climates, roughly 15 KiB each.
+     */
+    private static final int MAX_CLIMATE_CACHE_SIZE = 4096;
+
     private final int viewDistanceChunks;
     private final int chunkCacheSize;
+    private final long chunkCacheBudgetBytes;
     private final Path worldDirectory;
     private final int chunkIntegrationBudget;
     private final int activeRegionSizeXZ;
     private final int activeRegionHeight;
     private final int activeRegionMargin;
+    private final WorldGenerator.DensityMode densityMode;
+    private final WorldStorage.ReadMode storageReadMode;
+    private final int storageQueueLimit;
+    private final int climateCacheSize;
 
     private EngineConfig(int viewDistanceChunks,
                          int chunkCacheSize,
+                         long chunkCacheBudgetBytes,
                          Path worldDirectory,
                          int chunkIntegrationBudget,
                          int activeRegionSizeXZ,
                          int activeRegionHeight,
-                         int activeRegionMargin) {
+                         int activeRegionMargin,
+                         WorldGenerator.DensityMode densityMode,
+                         WorldStorage.ReadMode storageReadMode,
+                         int storageQueueLimit,
+                         int climateCacheSize) {
         this.viewDistanceChunks = viewDistanceChunks;
         this.chunkCacheSize = chunkCacheSize;
+        this.chunkCacheBudgetBytes = chunkCacheBudgetBytes;
         this.worldDirectory = worldDirectory;
         this.chunkIntegrationBudget = chunkIntegrationBudget;
         this.activeRegionSizeXZ = activeRegionSizeXZ;
         this.activeRegionHeight = activeRegionHeight;
         this.activeRegionMargin = activeRegionMargin;
+        this.densityMode = densityMode;
+        this.storageReadMode = storageReadMode;
+        this.storageQueueLimit = storageQueueLimit;
+        this.climateCacheSize = climateCacheSize;
     }
 
     public static EngineConfig load() {
         int viewDistance = parsePositiveInt("voxel.viewDistance", "VOXEL_VIEW_DISTANCE", 8, 4, 64);
-        int chunkCache = determineChunkCacheSize();
+        long chunkCacheBudget = determineChunkCacheBudgetBytes();
+        int chunkCache = determineChunkCacheSize(chunkCacheBudget);
         Path worldDir = determineWorldDirectory();
         int chunkBudget = parsePositiveInt("voxel.chunksPerFrame", "VOXEL_CHUNKS_PER_FRAME", 6, 1, Integer.MAX_VALUE);
         int activeRegionSize = determineActiveRegionSizeXZ(viewDistance);
         int activeRegionHeight = parsePositiveInt("voxel.activeRegionHeight", "VOXEL_ACTIVE_REGION_HEIGHT", 128, 64, Chunk.SY);
         int activeRegionMargin = computeActiveRegionMargin(activeRegionSize, activeRegionHeight);
-        return new EngineConfig(viewDistance, chunkCache, worldDir, chunkBudget, activeRegionSize, activeRegionHeight, activeRegionMargin);
+        WorldGenerator.DensityMode densityMode = determineDensityMode();
+        WorldStorage.ReadMode storageReadMode = determineStorageReadMode();
+        int storageQueueLimit = parsePositiveInt("voxel.storageQueueLimit", "VOXEL_STORAGE_QUEUE_LIMIT",
+                WorldStorage.DEFAULT_MAX_QUEUED_SAVES, 1, 1 << 16);
+        int climateCacheSize = parsePositiveInt("voxel.climateCacheSize", "VOXEL_CLIMATE_CACHE_SIZE",
+                java.lang.Math.min(MAX_CLIMATE_CACHE_SIZE,
+                        ChunkManager.climateCacheSizeForRadius(viewDistance + CLIMATE_PREFETCH_MARGIN_CHUNKS)),
+                1, Integer.MAX_VALUE);
+        return new EngineConfig(viewDistance, chunkCache, chunkCacheBudget, worldDir, chunkBudget, activeRegionSize, activeRegionHeight, activeRegionMargin,
+                densityMode, storageReadMode, storageQueueLimit, climateCacheSize);
     }
 
     public int viewDistanceChunks() {
@@ -56,6 +93,13 @@ public final class EngineConfig {
         return chunkCacheSize;
     }
 
+    /**
+     * Heap budget in bytes shared by resident chunks and the compressed and sparse snapshot tiers.
+     */
+    public long chunkCacheBudgetBytes() {
+        return chunkCacheBudgetBytes;
+    }
+
     public Path worldDirectory() {
         return worldDirectory;
     }
@@ -76,6 +120,39 @@ public final class EngineConfig {
         return activeRegionMargin;
     }
 
+    /**
+     * How the world generator evaluates 3D terrain and cave noise. Changing this for an existing
+     * world changes the terrain of chunks that have not been saved yet.
+     */
+    public WorldGenerator.DensityMode densityMode() {
+        return densityMode;
+    }
+
+    /**
+     * Whether chunk snapshots are read from disk with positional reads or through memory-mapped
+     * region files.
+     */
+    public WorldStorage.ReadMode storageReadMode() {
+        return storageReadMode;
+    }
+
+    /**
+     * Number of chunk snapshots that may wait in the storage write-behind queue before saving
+     * chunks blocks the caller.
+     */
+    public int storageQueueLimit() {
+        return storageQueueLimit;
+    }
+
+    /**
+     * Number of chunk climates the generation pipeline caches. Defaults to the size of the
+     * engine's climate prefetch ring, capped for large view distances; the prefetch ring is then
+     * clamped to what the cache holds.
+     */
+    public int climateCacheSize() {
+        return climateCacheSize;
+    }
+
     private static int parsePositiveInt(String propertyKey, String envKey, int fallback, int min, int max) {
         String configured = System.getProperty(propertyKey);
         if (configured == null || configured.isBlank()) {
@@ -95,7 +172,7 @@ public final class EngineConfig {
         return fallback;
     }
 
-    private static int determineChunkCacheSize() {
+    private static int determineChunkCacheSize(long budgetBytes) {
         String configured = System.getProperty("voxel.maxChunks");
         if (configured == null || configured.isBlank()) {
             configured = System.getenv("VOXEL_MAX_CHUNKS");
@@ -112,7 +189,35 @@ public final class EngineConfig {
             }
         }
 
-        long chunkBytes = (long) Chunk.SX * Chunk.SY * Chunk.SZ * Integer.BYTES;
+        // Upper bound on the resident count: every chunk stored densely at one byte per voxel. The
+        // byte budget normally evicts long before this since palettes keep most chunks far smaller.
+        long chunkBytes = (long) Chunk.SX * Chunk.SY * Chunk.SZ * Byte.BYTES;
+        long computed = budgetBytes / chunkBytes;
+        if (computed <= 0) {
+            return ChunkManager.DEFAULT_CACHE_SIZE;
+        }
+
+        long capped = java.lang.Math.min(Integer.MAX_VALUE, computed);
+        return (int) java.lang.Math.max(ChunkManager.MIN_CACHE_SIZE, capped);
+    }
+
+    private static long determineChunkCacheBudgetBytes() {
+        String configured = System.getProperty("voxel.chunkCacheMB");
+        if (configured == null || configured.isBlank()) {
+            configured = System.getenv("VOXEL_CHUNK_CACHE_MB");
+        }
+        if (configured != null) {
+            try {
+                long parsed = Long.parseLong(configured.trim());
+                if (parsed > 0) {
+                    return parsed << 20;
+                }
+                System.err.println("[EngineConfig] Ignoring non-positive chunk cache budget: " + configured);
+            } catch (NumberFormatException ex) {
+                System.err.println("[EngineConfig] Failed to parse chunk cache budget '" + configured + "': " + ex.getMessage());
+            }
+        }
+
         long maxMemory = Runtime.getRuntime().maxMemory();
         if (maxMemory <= 0 || maxMemory == Long.MAX_VALUE) {
             long total = Runtime.getRuntime().totalMemory();
@@ -122,17 +227,9 @@ public final class EngineConfig {
         }
 
         if (maxMemory <= 0 || maxMemory == Long.MAX_VALUE) {
-            return ChunkManager.DEFAULT_CACHE_SIZE;
-        }
-
-        long budget = java.lang.Math.max(maxMemory / 5, 128L << 20);
-        long computed = budget / chunkBytes;
-        if (computed <= 0) {
-            return ChunkManager.DEFAULT_CACHE_SIZE;
+            return (long) ChunkManager.DEFAULT_CACHE_SIZE * Chunk.TOTAL_VOXELS;
         }
-
-        long capped = java.lang.Math.min(Integer.MAX_VALUE, computed);
-        return (int) java.lang.Math.max(ChunkManager.MIN_CACHE_SIZE, capped);
+        return java.lang.Math.max(maxMemory / 5, 128L << 20);
     }
 
     private static Path determineWorldDirectory() {
@@ -150,6 +247,36 @@ public final class EngineConfig {
         return Path.of("world");
     }
 
+    private static WorldGenerator.DensityMode determineDensityMode() {
+        String configured = System.getProperty("voxel.densityMode");
+        if (configured == null || configured.isBlank()) {
+            configured = System.getenv("VOXEL_DENSITY_MODE");
+        }
+        if (configured != null && !configured.isBlank()) {
+            try {
+                return WorldGenerator.DensityMode.valueOf(configured.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("[EngineConfig] Unknown density mode '" + configured + "', expected exact or interpolated");
+            }
+        }
+        return WorldGenerator.DensityMode.EXACT;
+    }
+
+    private static WorldStorage.ReadMode determineStorageReadMode() {
+        String configured = System.getProperty("voxel.storageReadMode");
+        if (configured == null || configured.isBlank()) {
+            configured = System.getenv("VOXEL_STORAGE_READ_MODE");
+        }
+        if (configured != null && !configured.isBlank()) {
+            try {
+                return WorldStorage.ReadMode.valueOf(configured.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                System.err.println("[EngineConfig] Unknown storage read mode '" + configured + "', expected channel or mapped");
+            }
+        }
+        return WorldStorage.ReadMode.CHANNEL;
+    }
+
     private static int determineActiveRegionSizeXZ(int viewDistanceChunks) {
         String configured = System.getProperty("voxel.activeRegionSize");
         if (configured == null || configured.isBlank()) {
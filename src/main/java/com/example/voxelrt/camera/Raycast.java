@@ -1,8 +1,8 @@
 package com.example.voxelrt.camera;
 
-import com.example.voxelrt.world.Blocks;
 import com.example.voxelrt.world.Chunk;
 import com.example.voxelrt.world.ChunkManager;
+import com.example.voxelrt.world.ChunkPos;
 import org.joml.Vector3f;
 
 /**
@@ -16,6 +16,10 @@ public class Raycast {
 
     /**
      * Casts a ray through the world and returns the first non-air block along the ray.
+     * <p>
+     * The chunk under the ray is resolved once per column it passes through, loading it if needed,
+     * and tested via its occupancy mask; steps above the column's highest non-air voxel are
+     * rejected without a lookup. Player edits are already baked into resident chunks.
      *
      * @param cm      chunk manager used to sample blocks along the ray
      * @param origin  starting position in world space
@@ -39,8 +43,22 @@ public class Raycast {
         float tDeltaZ = sz / rd.z;
         int nx = 0, ny = 0, nz = 0;
         float t = 0f;
+        int columnX = Integer.MIN_VALUE;
+        int columnZ = Integer.MIN_VALUE;
+        Chunk column = null;
         while (t <= maxDist) {
-            if (y >= 0 && y < Chunk.SY && cm.sample(x, y, z) != Blocks.AIR) {
+            boolean solid = false;
+            if (y >= 0 && y < Chunk.SY) {
+                int chunkX = java.lang.Math.floorDiv(x, Chunk.SX);
+                int chunkZ = java.lang.Math.floorDiv(z, Chunk.SZ);
+                if (chunkX != columnX || chunkZ != columnZ) {
+                    columnX = chunkX;
+                    columnZ = chunkZ;
+                    column = cm.getOrLoad(new ChunkPos(chunkX, chunkZ));
+                }
+                solid = isSolid(column, x, y, z);
+            }
+            if (solid) {
                 Hit h = new Hit();
                 h.x = x;
                 h.y = y;
@@ -87,6 +105,13 @@ public class Raycast {
         return null;
     }
 
+    private static boolean isSolid(Chunk column, int x, int y, int z) {
+        if (y > column.maxNonAirY()) {
+            return false;
+        }
+        return column.isSolid(java.lang.Math.floorMod(x, Chunk.SX), y, java.lang.Math.floorMod(z, Chunk.SZ));
+    }
+
     private static float intBound(float s, float ds) {
         return ds > 0
                 ? ((float) java.lang.Math.floor(s + 1) - s) / ds
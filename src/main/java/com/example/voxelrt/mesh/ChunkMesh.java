@@ -30,17 +30,27 @@ public final class ChunkMesh {
     private final int instanceVbo;
     private final int instanceCount;
     private final float[] instanceData;
+    private final int[] sectionOffsets;
 
-    private ChunkMesh(int vao, int instanceVbo, int instanceCount, float[] instanceData) {
+    private ChunkMesh(int vao, int instanceVbo, int instanceCount, float[] instanceData, int[] sectionOffsets) {
         this.vao = vao;
         this.instanceVbo = instanceVbo;
         this.instanceCount = instanceCount;
         this.instanceData = instanceData;
+        this.sectionOffsets = sectionOffsets;
     }
 
     public static ChunkMesh create(float[] instances, int instanceCount) {
+        return create(instances, instanceCount, null);
+    }
+
+    /**
+     * Creates a mesh that remembers which instance ranges belong to which chunk section so a later
+     * partial rebuild can reuse the untouched ranges.
+     */
+    public static ChunkMesh create(float[] instances, int instanceCount, int[] sectionOffsets) {
         if (instanceCount <= 0 || instances.length == 0) {
-            return new ChunkMesh(0, 0, 0, new float[0]);
+            return new ChunkMesh(0, 0, 0, new float[0], sectionOffsets);
         }
         ensureSharedGeometry();
         int vao = glGenVertexArrays();
@@ -74,7 +84,7 @@ public final class ChunkMesh {
         glBindVertexArray(0);
         glBindBuffer(GL_ARRAY_BUFFER, 0);
 
-        return new ChunkMesh(vao, instanceVbo, instanceCount, instances);
+        return new ChunkMesh(vao, instanceVbo, instanceCount, instances, sectionOffsets);
     }
 
     static void ensureSharedGeometry() {
@@ -119,4 +129,8 @@ public final class ChunkMesh {
     public float[] instanceData() {
         return instanceData;
     }
+
+    public int[] sectionOffsets() {
+        return sectionOffsets;
+    }
 }
@@ -1,9 +1,8 @@
 package com.example.voxelrt.mesh;
 
-import com.example.voxelrt.world.Blocks;
 import com.example.voxelrt.world.Chunk;
 import com.example.voxelrt.world.ChunkManager;
-import com.example.voxelrt.world.ChunkPos;
+import com.example.voxelrt.world.ChunkNeighborhood;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,7 +11,8 @@ import java.util.List;
  * Greedy meshing utility that converts a chunk's voxel data into instanced quad batches.
  * <p>
  * The builder scans the chunk along each axis, merges contiguous faces with the same
- * block id and emits compact instance data consumed by {@link ChunkMesh}.
+ * block id and emits compact instance data consumed by {@link ChunkMesh}. Voxels are read from a
+ * {@link ChunkNeighborhood} snapshot so border faces need no lookups into neighbouring chunks.
  */
 public final class MeshBuilder {
     private static final int FLOATS_PER_INSTANCE = 9;
@@ -21,102 +21,195 @@ public final class MeshBuilder {
     }
 
     public static MeshData build(Chunk chunk, ChunkManager manager) {
-        List<QuadInstance> instances = new ArrayList<>();
-        int worldX0 = chunk.pos().cx() * Chunk.SX;
-        int worldZ0 = chunk.pos().cz() * Chunk.SZ;
+        return build(capture(chunk, manager));
+    }
+
+    public static MeshData build(ChunkNeighborhood hood) {
+        return rebuild(hood, null, Chunk.ALL_SECTIONS);
+    }
+
+    public static MeshData rebuild(Chunk chunk, ChunkManager manager, MeshData previous, int dirtySections) {
+        return rebuild(capture(chunk, manager), previous, dirtySections);
+    }
 
-        buildForAxisX(chunk, manager, instances, worldX0, worldZ0);
-        buildForAxisY(chunk, manager, instances, worldX0, worldZ0);
-        buildForAxisZ(chunk, manager, instances, worldX0, worldZ0);
+    /**
+     * Re-meshes only the sections in {@code dirtySections} and splices them into {@code previous}.
+     * <p>
+     * Quads never span a section boundary, so the instances of clean sections can be copied over
+     * unchanged. When {@code previous} carries no section ranges every section is rebuilt. All
+     * voxel reads go through the snapshot, so this may run without holding any chunk locks.
+     */
+    public static MeshData rebuild(ChunkNeighborhood hood, MeshData previous, int dirtySections) {
+        if (previous == null || previous.sectionOffsets() == null) {
+            dirtySections = Chunk.ALL_SECTIONS;
+        }
+        int worldX0 = hood.pos().cx() * Chunk.SX;
+        int worldZ0 = hood.pos().cz() * Chunk.SZ;
 
-        int instanceCount = instances.size();
+        // Rebuilt instances per section, null for clean sections copied from previous.
+        List<List<QuadInstance>> rebuilt = new ArrayList<>(Chunk.SECTION_COUNT);
+        int[] offsets = new int[Chunk.SECTION_COUNT + 1];
+        int instanceCount = 0;
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            offsets[section] = instanceCount;
+            if ((dirtySections & (1 << section)) != 0) {
+                List<QuadInstance> instances = new ArrayList<>();
+                int y0 = section * Chunk.SECTION_HEIGHT;
+                int y1 = y0 + Chunk.SECTION_HEIGHT;
+                buildForAxisX(hood, instances, worldX0, worldZ0, y0, y1);
+                buildForAxisY(hood, instances, worldX0, worldZ0, y0, y1);
+                buildForAxisZ(hood, instances, worldX0, worldZ0, y0, y1);
+                rebuilt.add(instances);
+                instanceCount += instances.size();
+            } else {
+                rebuilt.add(null);
+                instanceCount += previous.sectionInstanceCount(section);
+            }
+        }
+        offsets[Chunk.SECTION_COUNT] = instanceCount;
         if (instanceCount == 0) {
-            return MeshData.empty();
+            return new MeshData(new float[0], 0, offsets);
         }
+
         float[] array = new float[instanceCount * FLOATS_PER_INSTANCE];
-        int index = 0;
-        for (QuadInstance instance : instances) {
-            array[index++] = instance.minX;
-            array[index++] = instance.minY;
-            array[index++] = instance.minZ;
-            array[index++] = instance.maxX;
-            array[index++] = instance.maxY;
-            array[index++] = instance.maxZ;
-            array[index++] = instance.axis;
-            array[index++] = instance.positive ? 1.0f : 0.0f;
-            array[index++] = instance.blockId;
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            int index = offsets[section] * FLOATS_PER_INSTANCE;
+            List<QuadInstance> instances = rebuilt.get(section);
+            if (instances == null) {
+                int from = previous.sectionOffsets()[section] * FLOATS_PER_INSTANCE;
+                int length = previous.sectionInstanceCount(section) * FLOATS_PER_INSTANCE;
+                System.arraycopy(previous.instanceData(), from, array, index, length);
+                continue;
+            }
+            for (QuadInstance instance : instances) {
+                array[index++] = instance.minX;
+                array[index++] = instance.minY;
+                array[index++] = instance.minZ;
+                array[index++] = instance.maxX;
+                array[index++] = instance.maxY;
+                array[index++] = instance.maxZ;
+                array[index++] = instance.axis;
+                array[index++] = instance.positive ? 1.0f : 0.0f;
+                array[index++] = instance.blockId;
+            }
         }
-        return new MeshData(array, instanceCount);
+        return new MeshData(array, instanceCount, offsets);
     }
 
-    private static void buildForAxisX(Chunk chunk, ChunkManager manager, List<QuadInstance> out, int worldX0, int worldZ0) {
+    /**
+     * Builds faces perpendicular to X for the rows in {@code [sectionY0, sectionY1)}. Rows are
+     * compared through the snapshot's occupancy masks so block ids are only fetched where a
+     * solid/air transition produces a face.
+     */
+    private static void buildForAxisX(ChunkNeighborhood hood, List<QuadInstance> out, int worldX0, int worldZ0,
+                                      int sectionY0, int sectionY1) {
         int width = Chunk.SZ;
         int height = Chunk.SY;
         int[] mask = new int[width * height];
         for (int x = 0; x <= Chunk.SX; x++) {
-            for (int y = 0; y < Chunk.SY; y++) {
+            boolean border = x == 0 || x == Chunk.SX;
+            int yMin = border ? hood.paddedMinY() : hood.minNonAirY();
+            if (yMin < 0) {
+                continue;
+            }
+            yMin = Math.max(yMin, sectionY0);
+            int yMax = Math.min(border ? hood.paddedMaxY() : hood.maxNonAirY(), sectionY1 - 1);
+            if (yMin > yMax) {
+                continue;
+            }
+            for (int y = yMin; y <= yMax; y++) {
                 for (int z = 0; z < Chunk.SZ; z++) {
-                    int left = sample(chunk, manager, x - 1, y, z);
-                    int right = sample(chunk, manager, x, y, z);
-                    int value = 0;
-                    if (left != Blocks.AIR && right == Blocks.AIR) {
-                        value = left;
-                    } else if (left == Blocks.AIR && right != Blocks.AIR) {
-                        value = -right;
+                    int row = hood.solidRow(y, z);
+                    int left = (row >>> x) & 1;
+                    int right = (row >>> (x + 1)) & 1;
+                    if (left == right) {
+                        continue;
                     }
-                    mask[z + y * width] = value;
+                    mask[z + y * width] = left != 0
+                            ? hood.get(x - 1, y, z)
+                            : -hood.get(x, y, z);
                 }
             }
-            emitGreedyQuads(out, mask, width, height, 0, x, worldX0, worldZ0);
+            emitGreedyQuads(out, mask, width, yMin, yMax + 1, 0, x, worldX0, worldZ0);
         }
     }
 
-    private static void buildForAxisY(Chunk chunk, ChunkManager manager, List<QuadInstance> out, int worldX0, int worldZ0) {
+    /**
+     * Builds faces perpendicular to Y. A section owns the planes at its own layers; the last
+     * section additionally owns the plane at the top of the column.
+     */
+    private static void buildForAxisY(ChunkNeighborhood hood, List<QuadInstance> out, int worldX0, int worldZ0,
+                                      int sectionY0, int sectionY1) {
+        int yMin = hood.minNonAirY();
+        if (yMin < 0) {
+            return;
+        }
+        int yMax = hood.maxNonAirY();
+        int planeEnd = sectionY1 == Chunk.SY ? Chunk.SY : sectionY1 - 1;
+        int first = Math.max(yMin, sectionY0);
+        int last = Math.min(yMax + 1, planeEnd);
         int width = Chunk.SX;
         int height = Chunk.SZ;
         int[] mask = new int[width * height];
-        for (int y = 0; y <= Chunk.SY; y++) {
+        for (int y = first; y <= last; y++) {
+            boolean any = false;
             for (int z = 0; z < Chunk.SZ; z++) {
-                for (int x = 0; x < Chunk.SX; x++) {
-                    int below = sample(chunk, manager, x, y - 1, z);
-                    int above = sample(chunk, manager, x, y, z);
-                    int value = 0;
-                    if (below != Blocks.AIR && above == Blocks.AIR) {
-                        value = below;
-                    } else if (below == Blocks.AIR && above != Blocks.AIR) {
-                        value = -above;
-                    }
-                    mask[x + z * width] = value;
+                int below = centerRow(hood, y - 1, z);
+                int above = centerRow(hood, y, z);
+                int faces = below ^ above;
+                while (faces != 0) {
+                    int x = Integer.numberOfTrailingZeros(faces);
+                    faces &= faces - 1;
+                    mask[x + z * width] = ((below >>> x) & 1) != 0
+                            ? hood.get(x, y - 1, z)
+                            : -hood.get(x, y, z);
+                    any = true;
                 }
             }
-            emitGreedyQuads(out, mask, width, height, 1, y, worldX0, worldZ0);
+            if (any) {
+                emitGreedyQuads(out, mask, width, 0, height, 1, y, worldX0, worldZ0);
+            }
         }
     }
 
-    private static void buildForAxisZ(Chunk chunk, ChunkManager manager, List<QuadInstance> out, int worldX0, int worldZ0) {
+    private static void buildForAxisZ(ChunkNeighborhood hood, List<QuadInstance> out, int worldX0, int worldZ0,
+                                      int sectionY0, int sectionY1) {
         int width = Chunk.SX;
         int height = Chunk.SY;
         int[] mask = new int[width * height];
         for (int z = 0; z <= Chunk.SZ; z++) {
-            for (int y = 0; y < Chunk.SY; y++) {
-                for (int x = 0; x < Chunk.SX; x++) {
-                    int back = sample(chunk, manager, x, y, z - 1);
-                    int front = sample(chunk, manager, x, y, z);
-                    int value = 0;
-                    if (back != Blocks.AIR && front == Blocks.AIR) {
-                        value = back;
-                    } else if (back == Blocks.AIR && front != Blocks.AIR) {
-                        value = -front;
-                    }
-                    mask[x + y * width] = value;
+            boolean border = z == 0 || z == Chunk.SZ;
+            int yMin = border ? hood.paddedMinY() : hood.minNonAirY();
+            if (yMin < 0) {
+                continue;
+            }
+            yMin = Math.max(yMin, sectionY0);
+            int yMax = Math.min(border ? hood.paddedMaxY() : hood.maxNonAirY(), sectionY1 - 1);
+            if (yMin > yMax) {
+                continue;
+            }
+            for (int y = yMin; y <= yMax; y++) {
+                int back = centerRow(hood, y, z - 1);
+                int front = centerRow(hood, y, z);
+                int faces = back ^ front;
+                while (faces != 0) {
+                    int x = Integer.numberOfTrailingZeros(faces);
+                    faces &= faces - 1;
+                    mask[x + y * width] = ((back >>> x) & 1) != 0
+                            ? hood.get(x, y, z - 1)
+                            : -hood.get(x, y, z);
                 }
             }
-            emitGreedyQuads(out, mask, width, height, 2, z, worldX0, worldZ0);
+            emitGreedyQuads(out, mask, width, yMin, yMax + 1, 2, z, worldX0, worldZ0);
         }
     }
 
-    private static void emitGreedyQuads(List<QuadInstance> out, int[] mask, int width, int height, int axis, int plane, int worldX0, int worldZ0) {
-        for (int j = 0; j < height; j++) {
+    /**
+     * Greedily merges the non-zero cells of {@code mask} in rows {@code [rowStart, rowEnd)} into quads.
+     * Every consumed cell is reset to zero, so the mask is clean again when this returns.
+     */
+    private static void emitGreedyQuads(List<QuadInstance> out, int[] mask, int width, int rowStart, int rowEnd, int axis, int plane, int worldX0, int worldZ0) {
+        for (int j = rowStart; j < rowEnd; j++) {
             int i = 0;
             while (i < width) {
                 int idx = i + j * width;
@@ -131,7 +224,7 @@ public final class MeshBuilder {
                 }
                 int h = 1;
                 outer:
-                for (; j + h < height; h++) {
+                for (; j + h < rowEnd; h++) {
                     for (int k = 0; k < w; k++) {
                         if (mask[idx + k + h * width] != c) {
                             break outer;
@@ -193,26 +286,19 @@ public final class MeshBuilder {
         out.add(new QuadInstance(minX, minY, minZ, maxX, maxY, maxZ, axis, positive, blockId));
     }
 
-    private static int sample(Chunk chunk, ChunkManager manager, int x, int y, int z) {
-        if (y < 0 || y >= Chunk.SY) {
-            return Blocks.AIR;
-        }
-        if (x >= 0 && x < Chunk.SX && z >= 0 && z < Chunk.SZ) {
-            return chunk.get(x, y, z);
-        }
+    private static ChunkNeighborhood capture(Chunk chunk, ChunkManager manager) {
         if (manager == null) {
-            return Blocks.AIR;
-        }
-        int worldX = chunk.pos().cx() * Chunk.SX + x;
-        int worldZ = chunk.pos().cz() * Chunk.SZ + z;
-        ChunkPos neighborPos = new ChunkPos(Math.floorDiv(worldX, Chunk.SX), Math.floorDiv(worldZ, Chunk.SZ));
-        Chunk neighbor = manager.getIfLoaded(neighborPos);
-        if (neighbor == null) {
-            return Blocks.AIR;
+            return ChunkNeighborhood.capture(chunk, null, null, null, null);
         }
-        int localX = Math.floorMod(worldX, Chunk.SX);
-        int localZ = Math.floorMod(worldZ, Chunk.SZ);
-        return neighbor.get(localX, y, localZ);
+        return manager.captureNeighborhood(chunk);
+    }
+
+    /**
+     * Returns the 16-bit occupancy of the centre columns of a padded row, bit {@code x} for
+     * voxel {@code x}.
+     */
+    private static int centerRow(ChunkNeighborhood hood, int y, int z) {
+        return (hood.solidRow(y, z) >>> 1) & ((1 << Chunk.SX) - 1);
     }
 
     private record QuadInstance(float minX, float minY, float minZ,
@@ -222,10 +308,25 @@ public final class MeshBuilder {
 
     /**
      * Lightweight value object describing the generated instance buffer.
+     * <p>
+     * Chunk meshes also carry {@code sectionOffsets}: {@link Chunk#SECTION_COUNT} + 1 instance
+     * offsets delimiting the quads that belong to each section. Meshes that are not split by
+     * section (for example physics cluster meshes) leave it {@code null}.
      */
-    public record MeshData(float[] instanceData, int instanceCount) {
+    public record MeshData(float[] instanceData, int instanceCount, int[] sectionOffsets) {
+        public MeshData(float[] instanceData, int instanceCount) {
+            this(instanceData, instanceCount, null);
+        }
+
         public static MeshData empty() {
             return new MeshData(new float[0], 0);
         }
+
+        public int sectionInstanceCount(int section) {
+            if (sectionOffsets == null) {
+                return 0;
+            }
+            return sectionOffsets[section + 1] - sectionOffsets[section];
+        }
     }
 }
@@ -20,6 +20,7 @@ import com.example.voxelrt.world.ActiveRegion;
 import com.example.voxelrt.world.Blocks;
 import com.example.voxelrt.world.Chunk;
 import com.example.voxelrt.world.ChunkManager;
+import com.example.voxelrt.world.ChunkNeighborhood;
 import com.example.voxelrt.world.ChunkPos;
 import com.example.voxelrt.mesh.ChunkMesh;
 import com.example.voxelrt.mesh.MeshBuilder;
@@ -294,11 +295,11 @@ public final class PhysicsSystem implements AutoCloseable {
         if (chunkManager == null) {
             return;
         }
-        Chunk chunk = chunkManager.getIfLoaded(pos);
-        if (chunk == null) {
+        ChunkNeighborhood hood = chunkManager.captureNeighborhood(pos);
+        if (hood == null) {
             return;
         }
-        List<Cluster> clusters = findFloatingClusters(chunk, pos);
+        List<Cluster> clusters = findFloatingClusters(hood, pos);
         if (clusters.isEmpty()) {
             return;
         }
@@ -338,19 +339,26 @@ public final class PhysicsSystem implements AutoCloseable {
         }
     }
 
-    private List<Cluster> findFloatingClusters(Chunk chunk, ChunkPos pos) {
+    private List<Cluster> findFloatingClusters(ChunkNeighborhood hood, ChunkPos pos) {
         int sx = Chunk.SX;
         int sy = Chunk.SY;
         int sz = Chunk.SZ;
         int volume = sx * sy * sz;
         byte[] state = new byte[volume];
         ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int minY = hood.minNonAirY();
+        if (minY < 0) {
+            return new ArrayList<>();
+        }
+        int maxY = hood.maxNonAirY();
 
-        for (int y = 0; y < sy; y++) {
+        for (int y = minY; y <= maxY; y++) {
+            if (hood.isLayerEmpty(y)) {
+                continue;
+            }
             for (int z = 0; z < sz; z++) {
                 for (int x = 0; x < sx; x++) {
-                    int block = chunk.get(x, y, z);
-                    if (block == Blocks.AIR) {
+                    if (!hood.isSolid(x, y, z)) {
                         continue;
                     }
                     if (!isBoundary(x, y, z)) {
@@ -374,7 +382,7 @@ public final class PhysicsSystem implements AutoCloseable {
                             if (nx < 0 || ny < 0 || nz < 0 || nx >= sx || ny >= sy || nz >= sz) {
                                 continue;
                             }
-                            if (chunk.get(nx, ny, nz) == Blocks.AIR) {
+                            if (!hood.isSolid(nx, ny, nz)) {
                                 continue;
                             }
                             int nIdx = flatten(nx, ny, nz);
@@ -390,15 +398,17 @@ public final class PhysicsSystem implements AutoCloseable {
         }
 
         List<Cluster> clusters = new ArrayList<>();
-        for (int y = 0; y < sy; y++) {
+        for (int y = minY; y <= maxY; y++) {
+            if (hood.isLayerEmpty(y)) {
+                continue;
+            }
             for (int z = 0; z < sz; z++) {
                 for (int x = 0; x < sx; x++) {
                     int idx = flatten(x, y, z);
                     if (state[idx] != 0) {
                         continue;
                     }
-                    int block = chunk.get(x, y, z);
-                    if (block == Blocks.AIR) {
+                    if (!hood.isSolid(x, y, z)) {
                         state[idx] = -1;
                         continue;
                     }
@@ -410,7 +420,7 @@ public final class PhysicsSystem implements AutoCloseable {
                         int cx = idxX(current);
                         int cy = idxY(current);
                         int cz = idxZ(current);
-                        int blockId = chunk.get(cx, cy, cz);
+                        int blockId = hood.get(cx, cy, cz);
                         if (blockId == Blocks.AIR) {
                             continue;
                         }
@@ -424,7 +434,7 @@ public final class PhysicsSystem implements AutoCloseable {
                             if (nx < 0 || ny < 0 || nz < 0 || nx >= sx || ny >= sy || nz >= sz) {
                                 continue;
                             }
-                            if (chunk.get(nx, ny, nz) == Blocks.AIR) {
+                            if (!hood.isSolid(nx, ny, nz)) {
                                 continue;
                             }
                             int nIdx = flatten(nx, ny, nz);
@@ -17,6 +17,7 @@ import java.util.Objects;
  */
 public final class SparseVoxelOctree {
     private static final int ESTIMATED_NODE_BYTES = 32;
+    private static final ThreadLocal<byte[]> DENSE_BUFFER = ThreadLocal.withInitial(() -> new byte[Chunk.TOTAL_VOXELS]);
     private final Node root;
     private final int sizeX;
     private final int sizeY;
@@ -73,16 +74,18 @@ public final class SparseVoxelOctree {
     /**
      * Writes the voxel data represented by this octree into the provided chunk.
      * <p>
-     * The chunk is assumed to have been reset (no sections allocated). Only
-     * non-air voxels are written which keeps the array-based representation as
-     * sparse as possible.
+     * The tree is rasterised into a per-thread dense buffer first and then handed to the
+     * chunk's bulk section writer, so palettes and non-air counts are rebuilt
+     * once per section instead of once per voxel.
      */
     public void applyToChunk(Chunk chunk) {
         Objects.requireNonNull(chunk, "chunk");
         if (root == null || root.nonAir == 0) {
             return;
         }
-        fillChunk(chunk, root, 0, sizeX, 0, sizeY, 0, sizeZ);
+        byte[] dense = DENSE_BUFFER.get();
+        fillDense(dense, root, 0, sizeX, 0, sizeY, 0, sizeZ);
+        chunk.applyDenseData(dense);
     }
 
     private static Node buildNode(Chunk chunk, int x0, int x1, int y0, int y1, int z0, int z1) {
@@ -135,16 +138,14 @@ public final class SparseVoxelOctree {
         return new Node(children, totalNonAir, totalNodes);
     }
 
-    private static void fillChunk(Chunk chunk, Node node, int x0, int x1, int y0, int y1, int z0, int z1) {
+    private static void fillDense(byte[] dense, Node node, int x0, int x1, int y0, int y1, int z0, int z1) {
         if (node.isLeaf()) {
-            if (node.value == Blocks.AIR) {
-                return;
-            }
+            // Air leaves are written too: the buffer is reused, and the leaves tile the volume.
+            byte value = (byte) node.value;
             for (int y = y0; y < y1; y++) {
                 for (int z = z0; z < z1; z++) {
-                    for (int x = x0; x < x1; x++) {
-                        chunk.set(x, y, z, node.value);
-                    }
+                    int rowStart = x0 + z * Chunk.SX + y * Chunk.SX * Chunk.SZ;
+                    java.util.Arrays.fill(dense, rowStart, rowStart + (x1 - x0), value);
                 }
             }
             return;
@@ -168,7 +169,7 @@ public final class SparseVoxelOctree {
                     int childIndex = childIndex(xi, yi, zi);
                     Node child = node.children[childIndex];
                     if (child != null) {
-                        fillChunk(chunk, child, cx0, cx1, cy0, cy1, cz0, cz1);
+                        fillDense(dense, child, cx0, cx1, cy0, cy1, cz0, cz1);
                     }
                 }
             }
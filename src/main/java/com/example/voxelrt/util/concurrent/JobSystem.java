@@ -1,16 +1,20 @@
 package com.example.voxelrt.util.concurrent;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
 
 /**
  * Lightweight job system backed by a fixed-size worker pool.
@@ -19,17 +23,29 @@ import java.util.concurrent.atomic.AtomicInteger;
  * {@link CompletableFuture} handles which can be used to observe completion on the main thread.
  * Tasks are executed on a dedicated set of daemon workers so that long running or blocking work can
  * be moved off the render thread.
+ * <p>
+ * Queued jobs are ordered by a priority (lower runs first, ties in submission order) that can be
+ * re-scored while they wait via {@link #reprioritize}. Cancelling a returned future removes the
+ * job from the queue, so work nobody wants is dropped before it reaches a worker.
  */
 public final class JobSystem implements AutoCloseable {
+    private static final Comparator<Runnable> ORDER = (a, b) -> {
+        Task<?> left = (Task<?>) a;
+        Task<?> right = (Task<?>) b;
+        int byPriority = Double.compare(left.priority, right.priority);
+        return byPriority != 0 ? byPriority : Long.compare(left.sequence, right.sequence);
+    };
+
     private final ThreadPoolExecutor executor;
-    private final BlockingQueue<Runnable> queue;
+    private final PriorityBlockingQueue<Runnable> queue;
+    private final AtomicLong sequence = new AtomicLong();
 
     public JobSystem(String threadNamePrefix, int workerCount) {
         if (workerCount <= 0) {
             throw new IllegalArgumentException("workerCount must be positive");
         }
         Objects.requireNonNull(threadNamePrefix, "threadNamePrefix");
-        this.queue = new LinkedBlockingQueue<>();
+        this.queue = new PriorityBlockingQueue<>(64, ORDER);
         AtomicInteger ctr = new AtomicInteger();
         ThreadFactory factory = r -> {
             Thread t = new Thread(r, threadNamePrefix + ctr.incrementAndGet());
@@ -42,38 +58,50 @@ public final class JobSystem implements AutoCloseable {
     }
 
     public <T> CompletableFuture<T> submit(Callable<T> job) {
-        Objects.requireNonNull(job, "job");
-        CompletableFuture<T> future = new CompletableFuture<>();
-        try {
-            executor.execute(() -> {
-                try {
-                    future.complete(job.call());
-                } catch (Throwable t) {
-                    future.completeExceptionally(t);
-                }
-            });
-        } catch (RejectedExecutionException ex) {
-            future.completeExceptionally(ex);
-        }
-        return future;
+        return submit(job, null, 0.0);
     }
 
     public CompletableFuture<Void> submit(Runnable job) {
         Objects.requireNonNull(job, "job");
-        CompletableFuture<Void> future = new CompletableFuture<>();
+        return submit(() -> {
+            job.run();
+            return null;
+        }, null, 0.0);
+    }
+
+    /**
+     * Queues a job with an initial priority. {@code key} identifies the job to the scorer passed
+     * to {@link #reprioritize}; it may be {@code null} for jobs that keep their priority.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> job, Object key, double priority) {
+        Objects.requireNonNull(job, "job");
+        Task<T> task = new Task<>(job, key, priority, sequence.getAndIncrement());
         try {
-            executor.execute(() -> {
-                try {
-                    job.run();
-                    future.complete(null);
-                } catch (Throwable t) {
-                    future.completeExceptionally(t);
-                }
-            });
+            executor.execute(task);
         } catch (RejectedExecutionException ex) {
-            future.completeExceptionally(ex);
+            task.future.completeExceptionally(ex);
         }
-        return future;
+        return task.future;
+    }
+
+    /**
+     * Re-scores every queued job that has a key and restores the queue order. Jobs already
+     * running are unaffected.
+     */
+    public void reprioritize(ToDoubleFunction<Object> scorer) {
+        Objects.requireNonNull(scorer, "scorer");
+        if (queue.isEmpty()) {
+            return;
+        }
+        List<Runnable> drained = new ArrayList<>(queue.size());
+        queue.drainTo(drained);
+        for (Runnable runnable : drained) {
+            Task<?> task = (Task<?>) runnable;
+            if (task.key != null) {
+                task.priority = scorer.applyAsDouble(task.key);
+            }
+        }
+        queue.addAll(drained);
     }
 
     public int queuedTaskCount() {
@@ -94,4 +122,41 @@ public final class JobSystem implements AutoCloseable {
     public void close() {
         executor.shutdownNow();
     }
+
+    private final class Task<T> implements Runnable {
+        final Callable<T> job;
+        final Object key;
+        final long sequence;
+        final CompletableFuture<T> future;
+        volatile double priority;
+
+        Task(Callable<T> job, Object key, double priority, long sequence) {
+            this.job = job;
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.future = new CompletableFuture<>() {
+                @Override
+                public boolean cancel(boolean mayInterruptIfRunning) {
+                    boolean cancelled = super.cancel(mayInterruptIfRunning);
+                    if (cancelled) {
+                        queue.remove(Task.this);
+                    }
+                    return cancelled;
+                }
+            };
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(job.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
 }
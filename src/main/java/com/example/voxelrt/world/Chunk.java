@@ -3,23 +3,45 @@ package com.example.voxelrt.world;
 import com.example.voxelrt.mesh.ChunkMesh;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Dense voxel container representing a 16×256×16 column of the world.
  * <p>
- * Chunks lazily allocate 16-voxel-tall sections so that empty areas consume minimal
- * memory. The class also tracks render meshes and acts as the integration point
- * between procedural generation, physics extraction and GPU streaming.
+ * Chunks lazily allocate 16-voxel-tall sections so that empty areas consume minimal memory. Each
+ * section keeps a local block palette with bit-packed indices and collapses to a single value
+ * when it is uniform, so solid stone costs little more than open air. A 1-bit occupancy mask per
+ * section and the column's non-air Y range let meshing, physics and culling skip empty space
+ * without sampling individual voxels. The class also tracks render meshes and acts as the
+ * integration point between procedural generation, physics extraction and GPU streaming.
  */
 public class Chunk {
     public static final int SX = 16, SY = 256, SZ = 16;
     public static final int TOTAL_VOXELS = SX * SY * SZ;
-    private static final int SECTION_HEIGHT = 16;
-    private static final int SECTION_COUNT = (SY + SECTION_HEIGHT - 1) / SECTION_HEIGHT;
+    public static final int SECTION_HEIGHT = 16;
+    public static final int SECTION_COUNT = (SY + SECTION_HEIGHT - 1) / SECTION_HEIGHT;
+    public static final int SECTION_VOLUME = SX * SECTION_HEIGHT * SZ;
+    /**
+     * Dirty-section mask with one bit set for every section of the column.
+     */
+    public static final int ALL_SECTIONS = (1 << SECTION_COUNT) - 1;
+    private static final ThreadLocal<byte[]> GENERATION_BUFFER = ThreadLocal.withInitial(() -> new byte[TOTAL_VOXELS]);
+    private static final ThreadLocal<int[]> COLUMN_BUFFER = ThreadLocal.withInitial(() -> new int[SY]);
+    private static final ThreadLocal<int[]> PALETTE_REMAP = ThreadLocal.withInitial(() -> new int[Section.MAX_PALETTE]);
     private ChunkPos pos;
     private final Section[] sections = new Section[SECTION_COUNT];
-    private volatile boolean meshDirty = true;
+    private int minNonAirY = SY;
+    private int maxNonAirY = -1;
+    private boolean boundsDirty = false;
+    private final AtomicInteger dirtySections = new AtomicInteger(ALL_SECTIONS);
     private volatile ChunkMesh mesh;
+    private volatile LongAdder footprintCounter;
+    private long accountedFootprint;
+    /**
+     * Frozen copy handed out by {@link #frozenCopy()}, dropped on the next write.
+     */
+    private Chunk frozen;
 
     public Chunk(ChunkPos p) {
         this.pos = p;
@@ -31,7 +53,8 @@ public class Chunk {
 
     void reset(ChunkPos newPos) {
         this.pos = newPos;
-        this.meshDirty = true;
+        this.frozen = null;
+        this.dirtySections.set(ALL_SECTIONS);
         this.mesh = null;
     }
 
@@ -59,9 +82,23 @@ public class Chunk {
         if (sectionIndex < 0 || sectionIndex >= sections.length) {
             return null;
         }
+        if (sections[sectionIndex] == null) {
+            frozen = null;
+            sections[sectionIndex] = new Section();
+            return sections[sectionIndex];
+        }
+        return writableSection(sectionIndex);
+    }
+
+    /**
+     * Returns the existing section at {@code sectionIndex} ready to be modified, first copying it
+     * when a frozen copy still shares it.
+     */
+    private Section writableSection(int sectionIndex) {
+        frozen = null;
         Section section = sections[sectionIndex];
-        if (section == null) {
-            section = new Section();
+        if (section.shared) {
+            section = section.copy();
             sections[sectionIndex] = section;
         }
         return section;
@@ -81,79 +118,291 @@ public class Chunk {
             return Blocks.AIR;
         }
         int localY = y % SECTION_HEIGHT;
-        return section.voxels[localIndex(x, localY, z)] & 0xFF;
+        return section.get(localIndex(x, localY, z));
+    }
+
+    /**
+     * Returns whether the voxel holds a non-air block, answered from the occupancy mask.
+     */
+    public boolean isSolid(int x, int y, int z) {
+        if ((x | y | z) < 0 || x >= SX || y >= SY || z >= SZ) return false;
+        Section section = section(y);
+        return section != null && section.isSolid(localIndex(x, y % SECTION_HEIGHT, z));
+    }
+
+    /**
+     * Returns a 16-bit mask of the non-air voxels along X for the row at ({@code y}, {@code z}).
+     * Bit {@code x} is set when the voxel at {@code x} is solid.
+     */
+    public int solidRow(int y, int z) {
+        if (y < 0 || y >= SY || z < 0 || z >= SZ) return 0;
+        Section section = section(y);
+        return section == null ? 0 : section.solidRow(y % SECTION_HEIGHT, z);
+    }
+
+    /**
+     * Returns whether the horizontal layer at {@code y} contains only air.
+     */
+    public boolean isLayerEmpty(int y) {
+        if (y < 0 || y >= SY) return true;
+        Section section = section(y);
+        return section == null || section.isLayerEmpty(y % SECTION_HEIGHT);
+    }
+
+    /**
+     * Returns whether the section at {@code sectionIndex} contains only air.
+     */
+    public boolean isSectionEmpty(int sectionIndex) {
+        if (sectionIndex < 0 || sectionIndex >= SECTION_COUNT) return true;
+        Section section = sections[sectionIndex];
+        return section == null || section.nonAir == 0;
+    }
+
+    public boolean isEmpty() {
+        return maxNonAirY() < 0;
+    }
+
+    /**
+     * Lowest Y that holds a non-air voxel, or {@code -1} when the chunk is empty.
+     */
+    public int minNonAirY() {
+        if (boundsDirty) {
+            recomputeBounds();
+        }
+        return maxNonAirY < 0 ? -1 : minNonAirY;
+    }
+
+    /**
+     * Highest Y that holds a non-air voxel, or {@code -1} when the chunk is empty.
+     */
+    public int maxNonAirY() {
+        if (boundsDirty) {
+            recomputeBounds();
+        }
+        return maxNonAirY;
+    }
+
+    private void recomputeBounds() {
+        int min = SY;
+        int max = -1;
+        for (int y = 0; y < SY; y++) {
+            if (!isLayerEmpty(y)) {
+                min = y;
+                break;
+            }
+        }
+        if (min < SY) {
+            for (int y = SY - 1; y >= min; y--) {
+                if (!isLayerEmpty(y)) {
+                    max = y;
+                    break;
+                }
+            }
+        }
+        minNonAirY = min;
+        maxNonAirY = max;
+        boundsDirty = false;
+    }
+
+    private void includeInBounds(int y) {
+        if (boundsDirty) {
+            return;
+        }
+        if (y < minNonAirY) minNonAirY = y;
+        if (y > maxNonAirY) maxNonAirY = y;
+    }
+
+    private void excludeFromBounds(int y) {
+        if (y == minNonAirY || y == maxNonAirY) {
+            boundsDirty = true;
+        }
     }
 
     public void set(int x, int y, int z, int b) {
-        if ((x | y | z) < 0 || x >= SX || y >= SY || z >= SZ) return;
+        if (write(x, y, z, b)) {
+            markMeshDirtyAt(y);
+        }
+    }
+
+    /**
+     * Writes a block without touching the mesh dirty flag.
+     *
+     * @return {@code true} when the stored block changed
+     */
+    private boolean write(int x, int y, int z, int b) {
+        if ((x | y | z) < 0 || x >= SX || y >= SY || z >= SZ) return false;
         if (b == Blocks.AIR) {
             int sectionIndex = y / SECTION_HEIGHT;
             Section section = section(y);
             if (section == null) {
-                return;
+                return false;
             }
             int localY = y % SECTION_HEIGHT;
-            int idx = localIndex(x, localY, z);
-            if ((section.voxels[idx] & 0xFF) == 0) {
-                return;
+            int index = localIndex(x, localY, z);
+            if (section.get(index) == Blocks.AIR) {
+                return false;
             }
-            section.voxels[idx] = 0;
-            section.nonAir--;
+            section = writableSection(sectionIndex);
+            long bytesBefore = section.estimateBytes();
+            section.set(index, Blocks.AIR);
             maybeReleaseSection(sectionIndex);
-            markMeshDirty();
-            return;
+            if (sections[sectionIndex] == null || section.estimateBytes() != bytesBefore) {
+                footprintChanged();
+            }
+            excludeFromBounds(y);
+            return true;
         }
 
-        Section section = ensureSection(y);
-        if (section == null) {
-            return;
-        }
-        int localY = y % SECTION_HEIGHT;
-        int idx = localIndex(x, localY, z);
         byte encoded = encode(b);
-        if (section.voxels[idx] == encoded) {
-            return;
+        Section section = section(y);
+        boolean created = section == null;
+        int localY = y % SECTION_HEIGHT;
+        int index = localIndex(x, localY, z);
+        if (!created && section.get(index) == b) {
+            return false;
         }
-        if ((section.voxels[idx] & 0xFF) == 0) {
-            section.nonAir++;
+        section = ensureSection(y);
+        long bytesBefore = section.estimateBytes();
+        section.set(index, encoded & 0xFF);
+        if (created || section.estimateBytes() != bytesBefore) {
+            footprintChanged();
         }
-        section.voxels[idx] = encoded;
-        markMeshDirty();
+        includeInBounds(y);
+        return true;
+    }
+
+    /**
+     * Writes a vertical run of a single block id covering {@code [fromY, toY)} in the given column.
+     * <p>
+     * Sections that already hold the block uniformly are skipped without touching individual voxels
+     * and the mesh is marked dirty at most once for the whole run.
+     */
+    public void setColumn(int x, int z, int fromY, int toY, int b) {
+        if (x < 0 || x >= SX || z < 0 || z >= SZ) return;
+        int y0 = java.lang.Math.max(0, fromY);
+        int y1 = java.lang.Math.min(SY, toY);
+        if (y0 >= y1) return;
+        byte encoded = b == Blocks.AIR ? 0 : encode(b);
+        int changedMin = SY;
+        int changedMax = -1;
+        int y = y0;
+        while (y < y1) {
+            int sectionIndex = y / SECTION_HEIGHT;
+            int sectionEnd = java.lang.Math.min(y1, (sectionIndex + 1) * SECTION_HEIGHT);
+            Section section = sections[sectionIndex];
+            if (section == null ? b != Blocks.AIR : !section.isUniform(b)) {
+                section = ensureSection(y);
+                for (int yy = y; yy < sectionEnd; yy++) {
+                    if (section.set(localIndex(x, yy % SECTION_HEIGHT, z), encoded & 0xFF) != b) {
+                        changedMin = java.lang.Math.min(changedMin, yy);
+                        changedMax = yy;
+                    }
+                }
+                maybeReleaseSection(sectionIndex);
+            }
+            y = sectionEnd;
+        }
+        if (changedMax >= 0) {
+            boundsDirty = true;
+            markMeshDirty(sectionsTouchedBy(changedMin, changedMax));
+            footprintChanged();
+        }
+    }
+
+    /**
+     * Replaces an entire section with voxels copied from a prepared buffer.
+     * <p>
+     * The buffer uses the same {@code x + z * SX + y * SX * SZ} layout as {@link DenseData} and must
+     * hold {@link #SECTION_VOLUME} bytes starting at {@code offset}. The palette and non-air count
+     * are rebuilt in a single pass.
+     */
+    public void setSection(int sectionIndex, byte[] src, int offset) {
+        if (sectionIndex < 0 || sectionIndex >= SECTION_COUNT) {
+            throw new IllegalArgumentException("Section index out of range: " + sectionIndex);
+        }
+        if (src == null || offset < 0 || offset + SECTION_VOLUME > src.length) {
+            throw new IllegalArgumentException("Section buffer does not contain " + SECTION_VOLUME + " voxels at offset " + offset);
+        }
+        writeSection(sectionIndex, src, offset, PALETTE_REMAP.get());
+        int firstY = sectionIndex * SECTION_HEIGHT;
+        markMeshDirty(sectionsTouchedBy(firstY, firstY + SECTION_HEIGHT - 1));
+        footprintChanged();
+    }
+
+    private void writeSection(int sectionIndex, byte[] src, int offset, int[] remap) {
+        frozen = null;
+        Section section = sections[sectionIndex];
+        if (section == null || section.shared) {
+            section = new Section();
+        }
+        section.load(src, offset, remap);
+        sections[sectionIndex] = section.nonAir == 0 ? null : section;
+        boundsDirty = true;
     }
 
     public void fill(WorldGenerator gen) {
+        fill(gen, gen.sampleClimate(pos));
+    }
+
+    /**
+     * Runs the {@link GenerationStage#VOLUME} stage on top of a precomputed climate: terrain and
+     * carving per column into a scratch buffer, then decoration and finalization on the chunk.
+     */
+    public void fill(WorldGenerator gen, ChunkClimate climate) {
+        if (!climate.pos().equals(pos)) {
+            throw new IllegalArgumentException("Climate for " + climate.pos() + " cannot fill chunk " + pos);
+        }
         clearSections();
         int wx0 = pos.cx() * SX, wz0 = pos.cz() * SZ;
-        WorldGenerator.Column[] columns = new WorldGenerator.Column[SX * SZ];
+        WorldGenerator.Column[] columns = climate.columns();
+        byte[] buffer = GENERATION_BUFFER.get();
+        int[] columnBlocks = COLUMN_BUFFER.get();
+        java.util.Arrays.fill(buffer, (byte) 0);
+        int maxTop = -1;
         for (int z = 0; z < SZ; z++) {
             int wz = wz0 + z;
             for (int x = 0; x < SX; x++) {
                 int wx = wx0 + x;
-                WorldGenerator.Column column = gen.sampleColumn(wx, wz);
-                columns[z * SX + x] = column;
-                int topY = Math.min(column.groundHeight(), SY - 1);
+                WorldGenerator.Column column = columns[z * SX + x];
+                int topY = java.lang.Math.min(column.groundHeight(), SY - 1);
+                maxTop = java.lang.Math.max(maxTop, topY);
+                gen.sampleColumnTerrain(column, wx, wz, topY, columnBlocks);
+                gen.carveColumn(column, wx, wz, topY, columnBlocks);
                 for (int y = 0; y <= topY; y++) {
-                    int block = gen.sampleBlock(column, wx, y, wz);
-                    if (block != Blocks.AIR) {
-                        set(x, y, z, block);
-                    }
+                    buffer[localIndex(x, y, z)] = encode(columnBlocks[y]);
                 }
             }
         }
+        int[] remap = PALETTE_REMAP.get();
+        int lastSection = maxTop / SECTION_HEIGHT;
+        for (int sectionIndex = 0; sectionIndex <= lastSection; sectionIndex++) {
+            writeSection(sectionIndex, buffer, sectionIndex * SECTION_VOLUME, remap);
+        }
         populateStructures(gen, columns);
         markMeshDirty();
+        footprintChanged();
     }
 
     public DenseData captureDenseData() {
-        byte[] voxels = new byte[TOTAL_VOXELS];
-        int sectionSize = SX * SECTION_HEIGHT * SZ;
+        return captureDenseData(new byte[TOTAL_VOXELS]);
+    }
+
+    /**
+     * Captures the voxels into a caller-owned buffer of {@link #TOTAL_VOXELS} bytes, so snapshot
+     * paths can reuse one buffer per thread. The returned data wraps {@code voxels}.
+     */
+    public DenseData captureDenseData(byte[] voxels) {
+        if (voxels.length != TOTAL_VOXELS) {
+            throw new IllegalArgumentException("Unexpected dense chunk buffer length: " + voxels.length + " (expected " + TOTAL_VOXELS + ")");
+        }
+        java.util.Arrays.fill(voxels, (byte) 0);
         int nonAir = 0;
         for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
             Section section = sections[sectionIndex];
-            if (section == null) {
+            if (section == null || section.nonAir == 0) {
                 continue;
             }
-            System.arraycopy(section.voxels, 0, voxels, sectionIndex * sectionSize, section.voxels.length);
+            section.copyTo(voxels, sectionIndex * SECTION_VOLUME);
             nonAir += section.nonAir;
         }
         return new DenseData(voxels, nonAir);
@@ -166,31 +415,150 @@ public class Chunk {
         if (data.length != TOTAL_VOXELS) {
             throw new IllegalArgumentException("Unexpected dense chunk data length: " + data.length + " (expected " + TOTAL_VOXELS + ")");
         }
-        int sectionSize = SX * SECTION_HEIGHT * SZ;
+        int[] remap = PALETTE_REMAP.get();
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            writeSection(sectionIndex, data, sectionIndex * SECTION_VOLUME, remap);
+        }
+        markMeshDirty();
+        footprintChanged();
+    }
+
+    /**
+     * Loads the sections in {@code sectionMask} from the dense buffer {@code data} and empties the
+     * rest, so a snapshot decoded with {@link ChunkCompression#decompressSections} only has to fill
+     * the sections that hold anything.
+     */
+    public void loadSections(byte[] data, int sectionMask) {
+        if (data == null) {
+            throw new IllegalArgumentException("Chunk dense data cannot be null");
+        }
+        if (data.length != TOTAL_VOXELS) {
+            throw new IllegalArgumentException("Unexpected dense chunk data length: " + data.length + " (expected " + TOTAL_VOXELS + ")");
+        }
+        int[] remap = PALETTE_REMAP.get();
+        for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
+            if ((sectionMask & (1 << sectionIndex)) != 0) {
+                writeSection(sectionIndex, data, sectionIndex * SECTION_VOLUME, remap);
+            } else if (sections[sectionIndex] != null) {
+                frozen = null;
+                sections[sectionIndex] = null;
+                boundsDirty = true;
+            }
+        }
+        markMeshDirty();
+        footprintChanged();
+    }
+
+    /**
+     * Copies the columns in {@code [x0, x1) x [z0, z1)} into a dense buffer laid out X-fastest.
+     * {@code dstOffset} addresses voxel ({@code x0}, 0, {@code z0}); rows advance by
+     * {@code rowStride} and layers by {@code layerStride}. Sections holding only air are skipped,
+     * so the destination is expected to start out zeroed.
+     */
+    public void copyColumnsTo(byte[] dst, int dstOffset, int rowStride, int layerStride,
+                              int x0, int x1, int z0, int z1) {
+        int length = x1 - x0;
         for (int sectionIndex = 0; sectionIndex < sections.length; sectionIndex++) {
             Section section = sections[sectionIndex];
-            int offset = sectionIndex * sectionSize;
-            int nonAir = 0;
-            for (int i = 0; i < sectionSize; i++) {
-                if ((data[offset + i] & 0xFF) != Blocks.AIR) {
-                    nonAir++;
+            if (section == null || section.nonAir == 0) {
+                continue;
+            }
+            int baseY = sectionIndex * SECTION_HEIGHT;
+            for (int localY = 0; localY < SECTION_HEIGHT; localY++) {
+                int layerOffset = dstOffset + (baseY + localY) * layerStride;
+                for (int z = z0; z < z1; z++) {
+                    section.copyRow(localIndex(x0, localY, z), dst, layerOffset + (z - z0) * rowStride, length);
                 }
             }
-            if (nonAir == 0) {
-                if (section != null) {
-                    section.clear();
-                    sections[sectionIndex] = null;
+        }
+    }
+
+    /**
+     * Copies the local box {@code [x0, x1) x [y0, y1) x [z0, z1)} into {@code dst} as block ids.
+     * {@code dstOffset} addresses voxel ({@code x0}, {@code y0}, {@code z0}); X advances by one,
+     * Z by {@code rowStride} and Y by {@code layerStride}. The box must lie inside the chunk.
+     * Unlike {@link #copyColumnsTo}, air sections are written explicitly.
+     */
+    public void copyBoxTo(int[] dst, int dstOffset, int rowStride, int layerStride,
+                          int x0, int y0, int z0, int x1, int y1, int z1) {
+        for (int y = y0; y < y1; y++) {
+            int layerOffset = dstOffset + (y - y0) * layerStride;
+            Section section = section(y);
+            if (section == null || section.nonAir == 0) {
+                for (int z = z0; z < z1; z++) {
+                    int rowOffset = layerOffset + (z - z0) * rowStride;
+                    java.util.Arrays.fill(dst, rowOffset, rowOffset + (x1 - x0), Blocks.AIR);
                 }
                 continue;
             }
-            if (section == null) {
-                section = new Section();
-                sections[sectionIndex] = section;
+            int localY = y % SECTION_HEIGHT;
+            for (int z = z0; z < z1; z++) {
+                int rowOffset = layerOffset + (z - z0) * rowStride - x0;
+                for (int x = x0; x < x1; x++) {
+                    dst[rowOffset + x] = section.get(localIndex(x, localY, z));
+                }
             }
-            section.nonAir = nonAir;
-            System.arraycopy(data, offset, section.voxels, 0, section.voxels.length);
         }
-        markMeshDirty();
+    }
+
+    /**
+     * Returns the approximate number of heap bytes used by the voxel storage of this chunk.
+     */
+    public long estimateVoxelBytes() {
+        long bytes = 0;
+        for (Section section : sections) {
+            if (section != null) {
+                bytes += section.estimateBytes();
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Starts adding this chunk's voxel storage and mesh instance data to {@code counter} and keeps
+     * the contribution current as sections are allocated, resized or released and meshes replaced,
+     * so the owner never has to walk its chunks to total them.
+     */
+    synchronized void trackFootprint(LongAdder counter) {
+        untrackFootprint();
+        accountedFootprint = footprintBytes();
+        counter.add(accountedFootprint);
+        footprintCounter = counter;
+    }
+
+    /**
+     * Withdraws this chunk's contribution from the counter given to {@link #trackFootprint}.
+     */
+    synchronized void untrackFootprint() {
+        LongAdder counter = footprintCounter;
+        if (counter != null) {
+            counter.add(-accountedFootprint);
+            footprintCounter = null;
+            accountedFootprint = 0;
+        }
+    }
+
+    private void footprintChanged() {
+        if (footprintCounter == null) {
+            return;
+        }
+        synchronized (this) {
+            LongAdder counter = footprintCounter;
+            if (counter != null) {
+                long bytes = footprintBytes();
+                counter.add(bytes - accountedFootprint);
+                accountedFootprint = bytes;
+            }
+        }
+    }
+
+    private long footprintBytes() {
+        long bytes = estimateVoxelBytes();
+        ChunkMesh current = mesh;
+        if (current != null) {
+            bytes += (long) current.instanceData().length * Float.BYTES;
+        }
+        return bytes;
     }
 
     private void populateStructures(WorldGenerator gen, WorldGenerator.Column[] columns) {
@@ -265,7 +633,7 @@ public class Chunk {
                         continue;
                     }
                     if (get(ax, ay, az) == Blocks.AIR) {
-                        set(ax, ay, az, Blocks.STONE);
+                        write(ax, ay, az, Blocks.STONE);
                     }
                 }
             }
@@ -275,7 +643,7 @@ public class Chunk {
     private void placeShrub(Random rng, int x, int y, int z) {
         if (y <= 0 || y >= SY) return;
         if (get(x, y, z) != Blocks.AIR) return;
-        set(x, y, z, Blocks.LOG);
+        write(x, y, z, Blocks.LOG);
         for (int dx = -1; dx <= 0; dx++) {
             for (int dz = -1; dz <= 0; dz++) {
                 int ax = x + dx;
@@ -284,12 +652,12 @@ public class Chunk {
                 int ay = y + 1;
                 if (ay >= SY) continue;
                 if (get(ax, ay, az) == Blocks.AIR) {
-                    set(ax, ay, az, Blocks.LEAVES);
+                    write(ax, ay, az, Blocks.LEAVES);
                 }
             }
         }
         if (y + 2 < SY && get(x, y + 2, z) == Blocks.AIR) {
-            set(x, y + 2, z, Blocks.LEAVES);
+            write(x, y + 2, z, Blocks.LEAVES);
         }
     }
 
@@ -307,7 +675,7 @@ public class Chunk {
             }
         }
         for (int i = 0; i < height; i++) {
-            set(x, y + i, z, Blocks.CACTUS);
+            write(x, y + i, z, Blocks.CACTUS);
         }
     }
 
@@ -349,7 +717,7 @@ public class Chunk {
         }
 
         for (int i = 0; i < height; i++) {
-            set(x, y + i, z, Blocks.LOG);
+            write(x, y + i, z, Blocks.LOG);
         }
 
         for (int dy = -2; dy <= 2; dy++) {
@@ -366,44 +734,129 @@ public class Chunk {
                         continue;
                     }
                     if (get(ax, ay, az) == Blocks.AIR) {
-                        set(ax, ay, az, Blocks.LEAVES);
+                        write(ax, ay, az, Blocks.LEAVES);
                     }
                 }
             }
         }
 
         if (y + height < SY) {
-            set(x, y + height, z, Blocks.LEAVES);
+            write(x, y + height, z, Blocks.LEAVES);
         }
     }
 
     private void clearSections() {
+        frozen = null;
         for (int i = 0; i < sections.length; i++) {
             Section section = sections[i];
-            if (section != null) {
+            if (section == null) {
+                continue;
+            }
+            if (section.shared) {
+                sections[i] = null;
+            } else {
                 section.clear();
             }
         }
-        markMeshDirty();
+        minNonAirY = SY;
+        maxNonAirY = -1;
+        boundsDirty = false;
+    }
+
+    /**
+     * Returns an immutable copy of the voxels for readers on other threads, such as a
+     * {@link WorldView}. The copy shares the current sections, which this chunk copies before its
+     * next write to them, and its bounds are resolved up front so reads never write. The copy is
+     * cached until this chunk changes. Must be called from the thread that modifies this chunk.
+     */
+    Chunk frozenCopy() {
+        Chunk copy = frozen;
+        if (copy != null) {
+            return copy;
+        }
+        if (boundsDirty) {
+            recomputeBounds();
+        }
+        copy = new Chunk(pos);
+        for (int i = 0; i < sections.length; i++) {
+            Section section = sections[i];
+            if (section != null) {
+                section.shared = true;
+                copy.sections[i] = section;
+            }
+        }
+        copy.minNonAirY = minNonAirY;
+        copy.maxNonAirY = maxNonAirY;
+        frozen = copy;
+        return copy;
     }
 
     void prepareForPool() {
         clearSections();
         this.pos = null;
         this.mesh = null;
-        this.meshDirty = true;
+        this.dirtySections.set(ALL_SECTIONS);
     }
 
     public boolean isMeshDirty() {
-        return meshDirty;
+        return dirtySections.get() != 0;
+    }
+
+    /**
+     * Returns the bit mask of sections whose mesh is out of date without clearing it.
+     */
+    public int dirtySectionMask() {
+        return dirtySections.get();
+    }
+
+    /**
+     * Atomically returns and clears the mask of sections whose mesh is out of date.
+     */
+    public int takeDirtySections() {
+        return dirtySections.getAndSet(0);
     }
 
     public void markMeshDirty() {
-        meshDirty = true;
+        dirtySections.set(ALL_SECTIONS);
+    }
+
+    /**
+     * Marks the sections in {@code sectionMask} as needing a remesh.
+     */
+    public void markMeshDirty(int sectionMask) {
+        int bits = sectionMask & ALL_SECTIONS;
+        if (bits != 0) {
+            dirtySections.getAndUpdate(current -> current | bits);
+        }
+    }
+
+    /**
+     * Marks the sections whose mesh can observe a change to a voxel at height {@code y}.
+     */
+    public void markMeshDirtyAt(int y) {
+        if (y < 0 || y >= SY) {
+            return;
+        }
+        markMeshDirty(sectionsTouchedBy(y, y));
     }
 
     public void clearMeshDirty() {
-        meshDirty = false;
+        dirtySections.set(0);
+    }
+
+    /**
+     * Returns the sections whose mesh depends on voxels in {@code [minY, maxY]}.
+     * <p>
+     * A section owns the Y-facing planes at its own layers, so the plane just above a section's top
+     * layer belongs to the next section up and is included as well.
+     */
+    public static int sectionsTouchedBy(int minY, int maxY) {
+        int first = java.lang.Math.max(0, minY) / SECTION_HEIGHT;
+        int last = java.lang.Math.min(SECTION_COUNT - 1, (java.lang.Math.min(SY - 1, maxY) + 1) / SECTION_HEIGHT);
+        if (first > last) {
+            return 0;
+        }
+        return ((1 << (last + 1)) - 1) & ~((1 << first) - 1);
     }
 
     public ChunkMesh mesh() {
@@ -412,6 +865,7 @@ public class Chunk {
 
     public void setMesh(ChunkMesh mesh) {
         this.mesh = mesh;
+        footprintChanged();
     }
 
     public void releaseMesh() {
@@ -419,20 +873,305 @@ public class Chunk {
         if (current != null) {
             current.destroy();
             this.mesh = null;
+            footprintChanged();
         }
-        meshDirty = true;
+        dirtySections.set(ALL_SECTIONS);
     }
 
     /**
-     * Compact storage for a 16-voxel-tall slice of the chunk volume.
+     * Palette-compressed storage for a 16-voxel-tall slice of the chunk volume.
+     * <p>
+     * A section starts out uniform: a single palette entry and no index array. Once a second block
+     * id is written the voxels are stored as bit-packed palette indices using 1, 2, 4 or 8 bits per
+     * voxel depending on how many distinct ids the section has seen. Index widths always divide 64 so
+     * that a voxel never straddles two words. Each palette entry keeps a voxel count, and a write
+     * that leaves every voxel on one entry returns the section to the uniform state.
      */
     private static final class Section {
-        final byte[] voxels = new byte[SX * SECTION_HEIGHT * SZ];
+        static final int VOLUME = SECTION_VOLUME;
+        static final int MAX_PALETTE = 256;
+        private static final int OBJECT_OVERHEAD_BYTES = 48;
+
+        private static final int WORDS_PER_LAYER = SX * SZ / Long.SIZE;
+        private static final int ROWS_PER_WORD = Long.SIZE / SX;
+
+        private byte[] palette = new byte[2];
+        private int paletteSize = 1;
+        private int bits;
+        private long[] indices;
+        /**
+         * One bit per voxel, set for non-air blocks. {@code null} while the section is uniform.
+         */
+        private long[] solid;
+        /**
+         * Voxels referring to each palette entry. {@code null} while the section is uniform.
+         */
+        private int[] counts;
         int nonAir = 0;
+        /**
+         * Set once a frozen chunk references this section; the owner then copies before writing.
+         */
+        boolean shared;
+
+        Section copy() {
+            Section copy = new Section();
+            copy.palette = palette.clone();
+            copy.paletteSize = paletteSize;
+            copy.bits = bits;
+            copy.indices = indices == null ? null : indices.clone();
+            copy.solid = solid == null ? null : solid.clone();
+            copy.counts = counts == null ? null : counts.clone();
+            copy.nonAir = nonAir;
+            return copy;
+        }
+
+        boolean isSolid(int idx) {
+            if (solid == null) {
+                return nonAir != 0;
+            }
+            return (solid[idx >>> 6] & (1L << idx)) != 0;
+        }
+
+        int solidRow(int localY, int z) {
+            if (solid == null) {
+                return nonAir != 0 ? 0xFFFF : 0;
+            }
+            long word = solid[localY * WORDS_PER_LAYER + z / ROWS_PER_WORD];
+            return (int) (word >>> ((z % ROWS_PER_WORD) * SX)) & 0xFFFF;
+        }
+
+        boolean isLayerEmpty(int localY) {
+            if (solid == null) {
+                return nonAir == 0;
+            }
+            int base = localY * WORDS_PER_LAYER;
+            long any = 0;
+            for (int i = 0; i < WORDS_PER_LAYER; i++) {
+                any |= solid[base + i];
+            }
+            return any == 0;
+        }
+
+        boolean isUniform(int blockId) {
+            return indices == null && (palette[0] & 0xFF) == blockId;
+        }
+
+        int get(int idx) {
+            if (indices == null) {
+                return palette[0] & 0xFF;
+            }
+            return palette[readIndex(indices, bits, idx)] & 0xFF;
+        }
+
+        /**
+         * Writes a block id and returns the id that was previously stored at the index.
+         */
+        int set(int idx, int blockId) {
+            int previous = get(idx);
+            if (previous == blockId) {
+                return previous;
+            }
+            int paletteIndex = paletteIndexOf(blockId);
+            if (paletteIndex < 0) {
+                paletteIndex = addToPalette(blockId);
+            }
+            int previousIndex = 0;
+            if (indices == null) {
+                // Leaving the uniform state: every voxel currently refers to palette entry 0.
+                resize(1);
+                solid = new long[VOLUME / Long.SIZE];
+                if (nonAir != 0) {
+                    java.util.Arrays.fill(solid, -1L);
+                }
+                counts = new int[palette.length];
+                counts[0] = VOLUME;
+            } else {
+                previousIndex = readIndex(indices, bits, idx);
+            }
+            writeIndex(indices, bits, idx, paletteIndex);
+            counts[previousIndex]--;
+            if (++counts[paletteIndex] == VOLUME) {
+                makeUniform(blockId);
+                return previous;
+            }
+            if (previous == Blocks.AIR) {
+                nonAir++;
+                solid[idx >>> 6] |= 1L << idx;
+            } else if (blockId == Blocks.AIR) {
+                nonAir--;
+                solid[idx >>> 6] &= ~(1L << idx);
+            }
+            return previous;
+        }
+
+        private void makeUniform(int blockId) {
+            palette = new byte[2];
+            palette[0] = (byte) blockId;
+            paletteSize = 1;
+            bits = 0;
+            indices = null;
+            solid = null;
+            counts = null;
+            nonAir = blockId == Blocks.AIR ? 0 : VOLUME;
+        }
+
+        /**
+         * Replaces the section contents with a slice of a dense voxel buffer, rebuilding a minimal
+         * palette along the way.
+         *
+         * @param remap scratch array of {@link #MAX_PALETTE} entries reused between calls
+         */
+        void load(byte[] src, int offset, int[] remap) {
+            java.util.Arrays.fill(remap, -1);
+            paletteSize = 0;
+            int count = 0;
+            for (int i = 0; i < VOLUME; i++) {
+                int id = src[offset + i] & 0xFF;
+                if (remap[id] < 0) {
+                    remap[id] = appendPalette(id);
+                }
+                if (id != Blocks.AIR) {
+                    count++;
+                }
+            }
+            nonAir = count;
+            if (paletteSize == 1) {
+                bits = 0;
+                indices = null;
+                solid = null;
+                counts = null;
+                return;
+            }
+            int targetBits = bitsFor(paletteSize);
+            if (indices == null || bits != targetBits) {
+                bits = targetBits;
+                indices = new long[VOLUME * bits / Long.SIZE];
+            }
+            if (solid == null) {
+                solid = new long[VOLUME / Long.SIZE];
+            }
+            if (counts == null || counts.length != palette.length) {
+                counts = new int[palette.length];
+            } else {
+                java.util.Arrays.fill(counts, 0);
+            }
+            for (int w = 0; w < solid.length; w++) {
+                long word = 0;
+                int base = w * Long.SIZE;
+                for (int bit = 0; bit < Long.SIZE; bit++) {
+                    int id = src[offset + base + bit] & 0xFF;
+                    writeIndex(indices, bits, base + bit, remap[id]);
+                    counts[remap[id]]++;
+                    if (id != Blocks.AIR) {
+                        word |= 1L << bit;
+                    }
+                }
+                solid[w] = word;
+            }
+        }
+
+        void copyTo(byte[] dst, int offset) {
+            if (indices == null) {
+                java.util.Arrays.fill(dst, offset, offset + VOLUME, palette[0]);
+                return;
+            }
+            for (int i = 0; i < VOLUME; i++) {
+                dst[offset + i] = palette[readIndex(indices, bits, i)];
+            }
+        }
+
+        void copyRow(int idx, byte[] dst, int offset, int length) {
+            if (indices == null) {
+                java.util.Arrays.fill(dst, offset, offset + length, palette[0]);
+                return;
+            }
+            for (int i = 0; i < length; i++) {
+                dst[offset + i] = palette[readIndex(indices, bits, idx + i)];
+            }
+        }
+
+        long estimateBytes() {
+            long bytes = OBJECT_OVERHEAD_BYTES + palette.length;
+            if (indices != null) {
+                bytes += (long) indices.length * Long.BYTES;
+            }
+            if (solid != null) {
+                bytes += (long) solid.length * Long.BYTES;
+            }
+            if (counts != null) {
+                bytes += (long) counts.length * Integer.BYTES;
+            }
+            return bytes;
+        }
 
         void clear() {
             nonAir = 0;
-            java.util.Arrays.fill(voxels, (byte) 0);
+            palette[0] = (byte) Blocks.AIR;
+            paletteSize = 1;
+            bits = 0;
+            indices = null;
+            solid = null;
+            counts = null;
+        }
+
+        private int paletteIndexOf(int blockId) {
+            byte encoded = (byte) blockId;
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == encoded) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int addToPalette(int blockId) {
+            int index = appendPalette(blockId);
+            if (indices != null && paletteSize > (1 << bits)) {
+                resize(bits << 1);
+            }
+            return index;
+        }
+
+        private int appendPalette(int blockId) {
+            if (paletteSize == palette.length) {
+                palette = java.util.Arrays.copyOf(palette, java.lang.Math.min(MAX_PALETTE, palette.length * 2));
+                if (counts != null) {
+                    counts = java.util.Arrays.copyOf(counts, palette.length);
+                }
+            }
+            palette[paletteSize] = (byte) blockId;
+            return paletteSize++;
+        }
+
+        private void resize(int newBits) {
+            long[] next = new long[VOLUME * newBits / Long.SIZE];
+            if (indices != null) {
+                for (int i = 0; i < VOLUME; i++) {
+                    writeIndex(next, newBits, i, readIndex(indices, bits, i));
+                }
+            }
+            indices = next;
+            bits = newBits;
+        }
+
+        private static int bitsFor(int paletteSize) {
+            if (paletteSize <= 2) return 1;
+            if (paletteSize <= 4) return 2;
+            if (paletteSize <= 16) return 4;
+            return 8;
+        }
+
+        private static int readIndex(long[] words, int bits, int idx) {
+            int bitIndex = idx * bits;
+            return (int) (words[bitIndex >>> 6] >>> (bitIndex & 63)) & ((1 << bits) - 1);
+        }
+
+        private static void writeIndex(long[] words, int bits, int idx, int value) {
+            int bitIndex = idx * bits;
+            int word = bitIndex >>> 6;
+            int shift = bitIndex & 63;
+            long mask = ((1L << bits) - 1) << shift;
+            words[word] = (words[word] & ~mask) | (((long) value << shift) & mask);
         }
     }
 
@@ -0,0 +1,54 @@
+package com.example.voxelrt.world;
+
+/**
+ * Output of the {@link GenerationStage#CLIMATE} stage for one chunk: the column description of
+ * every (x, z) in the chunk, which fixes ground height, biome and surface materials.
+ * <p>
+ * Instances are immutable and cheap compared to a generated chunk, so they are cached by the
+ * {@link GenerationPipeline} and may be computed far ahead of the player to drive heightmap LOD
+ * and prefetch decisions without running the {@link GenerationStage#VOLUME} stage.
+ */
+public final class ChunkClimate {
+    private final ChunkPos pos;
+    private final WorldGenerator.Column[] columns;
+    private final int maxGroundHeight;
+
+    ChunkClimate(ChunkPos pos, WorldGenerator.Column[] columns) {
+        if (columns.length != Chunk.SX * Chunk.SZ) {
+            throw new IllegalArgumentException("Expected " + (Chunk.SX * Chunk.SZ) + " columns, got " + columns.length);
+        }
+        this.pos = pos;
+        this.columns = columns;
+        int max = Integer.MIN_VALUE;
+        for (WorldGenerator.Column column : columns) {
+            max = java.lang.Math.max(max, column.groundHeight());
+        }
+        this.maxGroundHeight = max;
+    }
+
+    public ChunkPos pos() {
+        return pos;
+    }
+
+    /**
+     * Returns the column at local coordinates ({@code x}, {@code z}).
+     */
+    public WorldGenerator.Column column(int x, int z) {
+        return columns[z * Chunk.SX + x];
+    }
+
+    public int groundHeight(int x, int z) {
+        return columns[z * Chunk.SX + x].groundHeight();
+    }
+
+    public int maxGroundHeight() {
+        return maxGroundHeight;
+    }
+
+    /**
+     * Exposes the backing array to the chunk stages without copying; callers must not modify it.
+     */
+    WorldGenerator.Column[] columns() {
+        return columns;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.voxelrt.world;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of a dense chunk voxel array, identified by the format version stored next to every
+ * payload. Codecs are registered with {@link ChunkCompression#register} and must be stateless and
+ * thread-safe; a format version, once written to disk, must keep decoding to the same voxels.
+ */
+public interface ChunkCodec {
+    /**
+     * Version tag written alongside payloads produced by this codec. Must be positive and unique.
+     */
+    int formatVersion();
+
+    String name();
+
+    /**
+     * Encodes a dense voxel array laid out like {@link Chunk#captureDenseData()}.
+     */
+    byte[] encode(byte[] voxels);
+
+    /**
+     * Decodes {@code encoded} into {@code dst}, overwriting all {@code dst.length} bytes.
+     *
+     * @throws IllegalArgumentException if the payload is malformed or does not fill {@code dst}
+     */
+    void decode(byte[] encoded, byte[] dst);
+
+    /**
+     * Decodes the remaining bytes of {@code encoded} into {@code dst}. Codecs that can read a
+     * buffer in place override this; the default copies only when the buffer is not a plain view
+     * of a whole heap array.
+     */
+    default void decode(ByteBuffer encoded, byte[] dst) {
+        if (encoded.hasArray() && encoded.arrayOffset() == 0 && encoded.position() == 0
+                && encoded.remaining() == encoded.array().length) {
+            decode(encoded.array(), dst);
+            return;
+        }
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        decode(bytes, dst);
+    }
+
+    /**
+     * Returns the mask of sections that may hold non-air voxels. Codecs without a section index
+     * report every section.
+     */
+    default int sectionMask(byte[] encoded) {
+        return Chunk.ALL_SECTIONS;
+    }
+
+    /**
+     * Returns the section mask of a payload read from a buffer, as {@link #sectionMask(byte[])}.
+     */
+    default int sectionMask(ByteBuffer encoded) {
+        return Chunk.ALL_SECTIONS;
+    }
+
+    /**
+     * Decodes only the sections in {@code sectionMask} into their slots of {@code dst}, leaving the
+     * bytes of other sections untouched. The default decodes the whole payload into a temporary
+     * buffer; codecs that store sections independently override it.
+     */
+    default void decodeSections(byte[] encoded, int sectionMask, byte[] dst) {
+        byte[] full = new byte[dst.length];
+        decode(encoded, full);
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            if ((sectionMask & (1 << section)) != 0) {
+                int offset = section * Chunk.SECTION_VOLUME;
+                System.arraycopy(full, offset, dst, offset, Chunk.SECTION_VOLUME);
+            }
+        }
+    }
+
+    /**
+     * Decodes the sections in {@code sectionMask} from the remaining bytes of {@code encoded}, as
+     * {@link #decodeSections(byte[], int, byte[])}. The default decodes the whole payload through
+     * {@link #decode(ByteBuffer, byte[])}.
+     */
+    default void decodeSections(ByteBuffer encoded, int sectionMask, byte[] dst) {
+        if ((sectionMask & Chunk.ALL_SECTIONS) == Chunk.ALL_SECTIONS) {
+            decode(encoded, dst);
+            return;
+        }
+        byte[] full = new byte[dst.length];
+        decode(encoded, full);
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            if ((sectionMask & (1 << section)) != 0) {
+                int offset = section * Chunk.SECTION_VOLUME;
+                System.arraycopy(full, offset, dst, offset, Chunk.SECTION_VOLUME);
+            }
+        }
+    }
+}
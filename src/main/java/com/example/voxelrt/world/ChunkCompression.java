@@ -1,73 +1,223 @@
 package com.example.voxelrt.world;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.InflaterInputStream;
+import java.util.zip.Inflater;
 
 /**
  * Utility methods for compressing and decompressing chunk voxel payloads.
+ * <p>
+ * Payloads are produced by a {@link ChunkCodec} chosen from a registry keyed by format version.
+ * New payloads are always written with the current codec; payloads of any registered version can
+ * be read back, so worlds saved by older builds keep loading. Every codec's encode and decode
+ * throughput is tracked and reported by {@link #codecStats()}.
  */
 public final class ChunkCompression {
-    private static final int IO_BUFFER_SIZE = 8 * 1024;
-    private static final int FORMAT_VERSION = 1;
+    private static final int DEFLATE_FORMAT_VERSION = 1;
+    private static final int PALETTE_RLE_FORMAT_VERSION = 2;
+    private static final int SECTIONED_RLE_FORMAT_VERSION = 3;
+    private static final ThreadLocal<byte[]> SECTION_BUFFER = ThreadLocal.withInitial(() -> new byte[Chunk.TOTAL_VOXELS]);
+    private static final Map<Integer, RegisteredCodec> CODECS = new ConcurrentHashMap<>();
+    private static volatile RegisteredCodec current;
+
+    static {
+        register(new DeflateCodec());
+        register(new PaletteRleCodec());
+        register(new SectionedRleCodec());
+        useCodec(SECTIONED_RLE_FORMAT_VERSION);
+    }
 
     private ChunkCompression() {
         // Utility class – prevent instantiation.
     }
 
     public static int currentFormatVersion() {
-        return FORMAT_VERSION;
+        return current.codec.formatVersion();
+    }
+
+    /**
+     * Adds a codec to the registry so payloads tagged with its format version can be read.
+     */
+    public static void register(ChunkCodec codec) {
+        Objects.requireNonNull(codec, "codec");
+        if (codec.formatVersion() <= 0) {
+            throw new IllegalArgumentException("Invalid format version " + codec.formatVersion() + " for codec " + codec.name());
+        }
+        RegisteredCodec existing = CODECS.putIfAbsent(codec.formatVersion(), new RegisteredCodec(codec));
+        if (existing != null) {
+            throw new IllegalArgumentException("Format version " + codec.formatVersion() + " is already registered to "
+                    + existing.codec.name());
+        }
+    }
+
+    /**
+     * Selects the registered codec used for new payloads.
+     */
+    public static void useCodec(int formatVersion) {
+        current = registered(formatVersion);
+    }
+
+    public static boolean isSupported(int formatVersion) {
+        return CODECS.containsKey(formatVersion);
     }
 
     public static CompressedChunkData compress(Chunk.DenseData data) {
         Objects.requireNonNull(data, "data");
         byte[] voxels = Objects.requireNonNull(data.voxels(), "voxels");
         int uncompressedSize = voxels.length;
+        RegisteredCodec codec = current;
         boolean allAir = data.nonAir() == 0;
         if (allAir) {
-            return new CompressedChunkData(new byte[0], uncompressedSize, data.nonAir(), true, FORMAT_VERSION);
-        }
-        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             DeflaterOutputStream dos = new DeflaterOutputStream(baos, deflater, IO_BUFFER_SIZE)) {
-            dos.write(voxels);
-            dos.finish();
-            return new CompressedChunkData(baos.toByteArray(), uncompressedSize, data.nonAir(), false, FORMAT_VERSION);
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to compress chunk data", ex);
-        } finally {
-            deflater.end();
+            return new CompressedChunkData(new byte[0], uncompressedSize, data.nonAir(), true, codec.codec.formatVersion());
         }
+        long start = System.nanoTime();
+        byte[] encoded = codec.codec.encode(voxels);
+        codec.recordEncode(uncompressedSize, encoded.length, System.nanoTime() - start);
+        return new CompressedChunkData(encoded, uncompressedSize, data.nonAir(), false, codec.codec.formatVersion());
     }
 
     public static byte[] decompress(CompressedChunkData data) {
+        Objects.requireNonNull(data, "data");
+        byte[] result = new byte[data.uncompressedSize()];
+        decompressInto(data, result);
+        return result;
+    }
+
+    /**
+     * Decodes {@code data} into {@code dst}, which must be exactly {@code uncompressedSize} bytes,
+     * so restores can reuse a scratch buffer instead of allocating one per chunk.
+     */
+    public static void decompressInto(CompressedChunkData data, byte[] dst) {
+        Objects.requireNonNull(data, "data");
+        if (dst.length != data.uncompressedSize()) {
+            throw new IllegalArgumentException("Destination holds " + dst.length + " bytes, payload decodes to "
+                    + data.uncompressedSize());
+        }
+        if (data.allAir()) {
+            java.util.Arrays.fill(dst, (byte) 0);
+            return;
+        }
+        RegisteredCodec codec = registered(data.formatVersion());
+        long start = System.nanoTime();
+        codec.codec.decode(data.compressed(), dst);
+        codec.recordDecode(dst.length, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the mask of sections that may hold non-air voxels, one bit per section from the
+     * bottom. Codecs that do not track sections report every section.
+     */
+    public static int nonEmptySections(CompressedChunkData data) {
         Objects.requireNonNull(data, "data");
         if (data.allAir()) {
-            return new byte[data.uncompressedSize()];
+            return 0;
         }
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(data.compressed());
-             InflaterInputStream inflater = new InflaterInputStream(bais)) {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream(data.uncompressedSize());
-            byte[] buffer = new byte[IO_BUFFER_SIZE];
-            int read;
-            while ((read = inflater.read(buffer)) != -1) {
-                baos.write(buffer, 0, read);
+        return registered(data.formatVersion()).codec.sectionMask(data.compressed());
+    }
+
+    /**
+     * Decodes only the sections in {@code sectionMask} into their slots of the dense buffer
+     * {@code dst}, leaving the other sections' bytes untouched. With a sectioned payload the
+     * skipped sections are never inflated.
+     */
+    public static void decompressSections(CompressedChunkData data, int sectionMask, byte[] dst) {
+        Objects.requireNonNull(data, "data");
+        if (dst.length != data.uncompressedSize()) {
+            throw new IllegalArgumentException("Destination holds " + dst.length + " bytes, payload decodes to "
+                    + data.uncompressedSize());
+        }
+        if (data.allAir()) {
+            clearSections(sectionMask, dst);
+            return;
+        }
+        RegisteredCodec codec = registered(data.formatVersion());
+        long start = System.nanoTime();
+        codec.codec.decodeSections(data.compressed(), sectionMask, dst);
+        codec.recordDecode(Integer.bitCount(sectionMask & Chunk.ALL_SECTIONS) * Chunk.SECTION_VOLUME, System.nanoTime() - start);
+    }
+
+    /**
+     * Decodes the sections in {@code sectionMask} straight into {@code chunk}, replacing only those
+     * sections and marking only their meshes dirty.
+     */
+    public static void decompressSections(CompressedChunkData data, int sectionMask, Chunk chunk) {
+        Objects.requireNonNull(chunk, "chunk");
+        byte[] voxels = SECTION_BUFFER.get();
+        decompressSections(data, sectionMask, voxels);
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            if ((sectionMask & (1 << section)) != 0) {
+                chunk.setSection(section, voxels, section * Chunk.SECTION_VOLUME);
             }
-            byte[] result = baos.toByteArray();
-            if (result.length != data.uncompressedSize()) {
-                throw new IllegalStateException("Decompressed chunk size mismatch: expected "
-                        + data.uncompressedSize() + " bytes but got " + result.length);
+        }
+    }
+
+    /**
+     * Returns the mask of sections that may hold non-air voxels in a payload viewed in place.
+     */
+    public static int nonEmptySections(PayloadView view) {
+        Objects.requireNonNull(view, "view");
+        if (view.allAir()) {
+            return 0;
+        }
+        return registered(view.formatVersion()).codec.sectionMask(view.compressed().duplicate());
+    }
+
+    /**
+     * Decodes the sections in {@code sectionMask} of a payload viewed in place into their slots of
+     * {@code dst}, reading the payload where it lies instead of copying it into a fresh array.
+     */
+    public static void decompressSections(PayloadView view, int sectionMask, byte[] dst) {
+        Objects.requireNonNull(view, "view");
+        if (dst.length != view.uncompressedSize()) {
+            throw new IllegalArgumentException("Destination holds " + dst.length + " bytes, payload decodes to "
+                    + view.uncompressedSize());
+        }
+        if (view.allAir()) {
+            clearSections(sectionMask, dst);
+            return;
+        }
+        RegisteredCodec codec = registered(view.formatVersion());
+        long start = System.nanoTime();
+        codec.codec.decodeSections(view.compressed().duplicate(), sectionMask, dst);
+        codec.recordDecode(Integer.bitCount(sectionMask & Chunk.ALL_SECTIONS) * Chunk.SECTION_VOLUME, System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the throughput counters of every registered codec, ordered by format version.
+     */
+    public static List<CodecStats> codecStats() {
+        List<CodecStats> stats = new ArrayList<>(CODECS.size());
+        for (RegisteredCodec codec : CODECS.values()) {
+            stats.add(codec.snapshot());
+        }
+        stats.sort((a, b) -> Integer.compare(a.formatVersion(), b.formatVersion()));
+        return stats;
+    }
+
+    private static void clearSections(int sectionMask, byte[] dst) {
+        for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+            if ((sectionMask & (1 << section)) != 0) {
+                int offset = section * Chunk.SECTION_VOLUME;
+                java.util.Arrays.fill(dst, offset, offset + Chunk.SECTION_VOLUME, (byte) 0);
             }
-            return result;
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to decompress chunk data", ex);
         }
     }
 
+    private static RegisteredCodec registered(int formatVersion) {
+        RegisteredCodec codec = CODECS.get(formatVersion);
+        if (codec == null) {
+            throw new IllegalArgumentException("No chunk codec registered for format version " + formatVersion);
+        }
+        return codec;
+    }
+
     public record CompressedChunkData(byte[] compressed, int uncompressedSize, int nonAir, boolean allAir,
                                       int formatVersion) {
         public CompressedChunkData {
@@ -79,5 +229,576 @@ public final class ChunkCompression {
                 throw new IllegalArgumentException("Invalid format version " + formatVersion);
             }
         }
+
+        /**
+         * Returns a view of this payload for the in-place decode methods.
+         */
+        public PayloadView view() {
+            return new PayloadView(ByteBuffer.wrap(compressed), uncompressedSize, nonAir, allAir, formatVersion);
+        }
+    }
+
+    /**
+     * A compressed payload read where it lies, such as a slice of a memory-mapped storage file. The
+     * buffer is only valid for as long as its source guarantees; decode it, do not keep it.
+     */
+    public record PayloadView(ByteBuffer compressed, int uncompressedSize, int nonAir, boolean allAir,
+                              int formatVersion) {
+        public PayloadView {
+            Objects.requireNonNull(compressed, "compressed");
+            if (uncompressedSize <= 0) {
+                throw new IllegalArgumentException("Uncompressed chunk size must be positive");
+            }
+            if (formatVersion <= 0) {
+                throw new IllegalArgumentException("Invalid format version " + formatVersion);
+            }
+        }
+    }
+
+    /**
+     * Cumulative work done by one codec since startup.
+     */
+    public record CodecStats(String name, int formatVersion,
+                             long encodedChunks, long encodeInputBytes, long encodeOutputBytes, long encodeNanos,
+                             long decodedChunks, long decodeOutputBytes, long decodeNanos) {
+        /**
+         * Uncompressed megabytes encoded per second.
+         */
+        public double encodeMegabytesPerSecond() {
+            return encodeNanos == 0 ? 0.0 : encodeInputBytes * 1000.0 / (1 << 20) / (encodeNanos / 1_000_000.0);
+        }
+
+        /**
+         * Uncompressed megabytes decoded per second.
+         */
+        public double decodeMegabytesPerSecond() {
+            return decodeNanos == 0 ? 0.0 : decodeOutputBytes * 1000.0 / (1 << 20) / (decodeNanos / 1_000_000.0);
+        }
+
+        /**
+         * Encoded size as a fraction of the input size.
+         */
+        public double compressionRatio() {
+            return encodeInputBytes == 0 ? 0.0 : (double) encodeOutputBytes / encodeInputBytes;
+        }
+    }
+
+    private static final class RegisteredCodec {
+        final ChunkCodec codec;
+        final LongAdder encodedChunks = new LongAdder();
+        final LongAdder encodeInputBytes = new LongAdder();
+        final LongAdder encodeOutputBytes = new LongAdder();
+        final LongAdder encodeNanos = new LongAdder();
+        final LongAdder decodedChunks = new LongAdder();
+        final LongAdder decodeOutputBytes = new LongAdder();
+        final LongAdder decodeNanos = new LongAdder();
+
+        RegisteredCodec(ChunkCodec codec) {
+            this.codec = codec;
+        }
+
+        void recordEncode(int inputBytes, int outputBytes, long nanos) {
+            encodedChunks.increment();
+            encodeInputBytes.add(inputBytes);
+            encodeOutputBytes.add(outputBytes);
+            encodeNanos.add(nanos);
+        }
+
+        void recordDecode(int outputBytes, long nanos) {
+            decodedChunks.increment();
+            decodeOutputBytes.add(outputBytes);
+            decodeNanos.add(nanos);
+        }
+
+        CodecStats snapshot() {
+            return new CodecStats(codec.name(), codec.formatVersion(),
+                    encodedChunks.sum(), encodeInputBytes.sum(), encodeOutputBytes.sum(), encodeNanos.sum(),
+                    decodedChunks.sum(), decodeOutputBytes.sum(), decodeNanos.sum());
+        }
+    }
+
+    /**
+     * Format version 1: the whole dense array as one zlib stream at {@link Deflater#BEST_SPEED}.
+     * <p>
+     * Each thread keeps one {@link Deflater}, one {@link Inflater} and a growable output buffer,
+     * reset between chunks, so steady-state encoding allocates only the returned payload and
+     * decoding allocates nothing.
+     */
+    private static final class DeflateCodec implements ChunkCodec {
+        private static final ThreadLocal<Deflater> DEFLATERS = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+        private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+        private static final ThreadLocal<ByteBuffer> OUTPUT = ThreadLocal.withInitial(() -> ByteBuffer.allocate(16 * 1024));
+
+        @Override
+        public int formatVersion() {
+            return DEFLATE_FORMAT_VERSION;
+        }
+
+        @Override
+        public String name() {
+            return "deflate";
+        }
+
+        @Override
+        public byte[] encode(byte[] voxels) {
+            Deflater deflater = DEFLATERS.get();
+            ByteBuffer out = OUTPUT.get();
+            out.clear();
+            try {
+                deflater.setInput(ByteBuffer.wrap(voxels));
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (!out.hasRemaining()) {
+                        ByteBuffer larger = ByteBuffer.allocate(out.capacity() * 2);
+                        out.flip();
+                        larger.put(out);
+                        out = larger;
+                        OUTPUT.set(out);
+                    }
+                    deflater.deflate(out);
+                }
+            } finally {
+                deflater.reset();
+            }
+            out.flip();
+            byte[] encoded = new byte[out.remaining()];
+            out.get(encoded);
+            return encoded;
+        }
+
+        @Override
+        public void decode(byte[] encoded, byte[] dst) {
+            decode(ByteBuffer.wrap(encoded), dst);
+        }
+
+        @Override
+        public void decode(ByteBuffer encoded, byte[] dst) {
+            Inflater inflater = INFLATERS.get();
+            ByteBuffer out = ByteBuffer.wrap(dst);
+            try {
+                inflater.setInput(encoded);
+                while (out.hasRemaining() && !inflater.finished()) {
+                    if (inflater.inflate(out) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalArgumentException("Deflate chunk payload truncated after " + out.position() + " bytes");
+                    }
+                }
+                if (out.hasRemaining() || !inflater.finished()) {
+                    throw new IllegalArgumentException("Decompressed chunk size mismatch: expected " + dst.length + " bytes");
+                }
+            } catch (DataFormatException ex) {
+                throw new IllegalArgumentException("Corrupt deflate chunk payload", ex);
+            } finally {
+                inflater.reset();
+            }
+        }
+    }
+
+    /**
+     * Format version 2: one {@link RunLengthFrames run-length frame} covering the whole chunk.
+     */
+    private static final class PaletteRleCodec implements ChunkCodec {
+        @Override
+        public int formatVersion() {
+            return PALETTE_RLE_FORMAT_VERSION;
+        }
+
+        @Override
+        public String name() {
+            return "palette-rle";
+        }
+
+        @Override
+        public byte[] encode(byte[] voxels) {
+            checkLength(voxels.length);
+            RunLengthFrames.Scratch scratch = RunLengthFrames.SCRATCH.get();
+            int size = RunLengthFrames.encode(voxels, 0, Chunk.SY, false, scratch.output, 0, scratch);
+            return java.util.Arrays.copyOf(scratch.output, size);
+        }
+
+        @Override
+        public void decode(byte[] encoded, byte[] dst) {
+            checkLength(dst.length);
+            RunLengthFrames.decode(encoded, 0, encoded.length, Chunk.SY, false, dst, 0, RunLengthFrames.SCRATCH.get());
+        }
+
+        @Override
+        public void decode(ByteBuffer encoded, byte[] dst) {
+            checkLength(dst.length);
+            RunLengthFrames.Scratch scratch = RunLengthFrames.SCRATCH.get();
+            RunLengthFrames.Slice slice = RunLengthFrames.slice(encoded, scratch);
+            RunLengthFrames.decode(slice.array(), slice.start(), slice.end(), Chunk.SY, false, dst, 0, scratch);
+        }
+    }
+
+    /**
+     * Format version 3: every non-empty section as an independent {@link RunLengthFrames frame}.
+     * <p>
+     * The payload starts with a 16-bit mask of the sections that hold any non-air voxel, followed
+     * by one 16-bit frame length per set bit and then the frames in section order. Empty sections
+     * cost nothing, a uniform section costs two bytes, and any subset of sections can be decoded
+     * without touching the others.
+     */
+    private static final class SectionedRleCodec implements ChunkCodec {
+        private static final int HEADER_BYTES = 2;
+
+        @Override
+        public int formatVersion() {
+            return SECTIONED_RLE_FORMAT_VERSION;
+        }
+
+        @Override
+        public String name() {
+            return "sectioned-rle";
+        }
+
+        @Override
+        public byte[] encode(byte[] voxels) {
+            checkLength(voxels.length);
+            RunLengthFrames.Scratch scratch = RunLengthFrames.SCRATCH.get();
+            byte[] frames = scratch.output;
+            int[] lengths = new int[Chunk.SECTION_COUNT];
+            int mask = 0;
+            int size = 0;
+            for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                int offset = section * Chunk.SECTION_VOLUME;
+                if (isAir(voxels, offset, Chunk.SECTION_VOLUME)) {
+                    continue;
+                }
+                int end = RunLengthFrames.encode(voxels, offset, Chunk.SECTION_HEIGHT, true, frames, size, scratch);
+                lengths[section] = end - size;
+                size = end;
+                mask |= 1 << section;
+            }
+            int tableBytes = Integer.bitCount(mask) * 2;
+            byte[] out = new byte[HEADER_BYTES + tableBytes + size];
+            out[0] = (byte) (mask >>> 8);
+            out[1] = (byte) mask;
+            int cursor = HEADER_BYTES;
+            for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                if ((mask & (1 << section)) != 0) {
+                    out[cursor++] = (byte) (lengths[section] >>> 8);
+                    out[cursor++] = (byte) lengths[section];
+                }
+            }
+            System.arraycopy(frames, 0, out, cursor, size);
+            return out;
+        }
+
+        @Override
+        public void decode(byte[] encoded, byte[] dst) {
+            decodeSections(encoded, Chunk.ALL_SECTIONS, dst);
+        }
+
+        @Override
+        public void decode(ByteBuffer encoded, byte[] dst) {
+            decodeSections(encoded, Chunk.ALL_SECTIONS, dst);
+        }
+
+        @Override
+        public int sectionMask(byte[] encoded) {
+            if (encoded.length < HEADER_BYTES) {
+                throw new IllegalArgumentException("Sectioned payload too short: " + encoded.length + " bytes");
+            }
+            return ((encoded[0] & 0xFF) << 8) | (encoded[1] & 0xFF);
+        }
+
+        @Override
+        public int sectionMask(ByteBuffer encoded) {
+            if (encoded.remaining() < HEADER_BYTES) {
+                throw new IllegalArgumentException("Sectioned payload too short: " + encoded.remaining() + " bytes");
+            }
+            return encoded.getShort(encoded.position()) & 0xFFFF;
+        }
+
+        @Override
+        public void decodeSections(byte[] encoded, int sectionMask, byte[] dst) {
+            decodeSections(encoded, 0, encoded.length, sectionMask, dst, RunLengthFrames.SCRATCH.get());
+        }
+
+        @Override
+        public void decodeSections(ByteBuffer encoded, int sectionMask, byte[] dst) {
+            RunLengthFrames.Scratch scratch = RunLengthFrames.SCRATCH.get();
+            RunLengthFrames.Slice slice = RunLengthFrames.slice(encoded, scratch);
+            decodeSections(slice.array(), slice.start(), slice.end(), sectionMask, dst, scratch);
+        }
+
+        private static void decodeSections(byte[] encoded, int start, int end, int sectionMask, byte[] dst,
+                                           RunLengthFrames.Scratch scratch) {
+            checkLength(dst.length);
+            if (end - start < HEADER_BYTES) {
+                throw new IllegalArgumentException("Sectioned payload too short: " + (end - start) + " bytes");
+            }
+            int present = ((encoded[start] & 0xFF) << 8) | (encoded[start + 1] & 0xFF);
+            if ((present & ~Chunk.ALL_SECTIONS) != 0) {
+                throw new IllegalArgumentException("Sectioned payload names sections outside the chunk: " + Integer.toBinaryString(present));
+            }
+            int frameStart = start + HEADER_BYTES + Integer.bitCount(present) * 2;
+            if (frameStart > end) {
+                throw new IllegalArgumentException("Sectioned payload truncated in its offset table");
+            }
+            int table = start + HEADER_BYTES;
+            int cursor = frameStart;
+            for (int section = 0; section < Chunk.SECTION_COUNT; section++) {
+                int offset = section * Chunk.SECTION_VOLUME;
+                boolean wanted = (sectionMask & (1 << section)) != 0;
+                if ((present & (1 << section)) == 0) {
+                    if (wanted) {
+                        java.util.Arrays.fill(dst, offset, offset + Chunk.SECTION_VOLUME, (byte) 0);
+                    }
+                    continue;
+                }
+                int length = ((encoded[table] & 0xFF) << 8) | (encoded[table + 1] & 0xFF);
+                table += 2;
+                if (cursor + length > end) {
+                    throw new IllegalArgumentException("Sectioned payload truncated in section " + section);
+                }
+                if (wanted) {
+                    RunLengthFrames.decode(encoded, cursor, cursor + length, Chunk.SECTION_HEIGHT, true, dst, offset, scratch);
+                }
+                cursor += length;
+            }
+            if (cursor != end) {
+                throw new IllegalArgumentException("Sectioned payload has " + (end - cursor) + " trailing bytes");
+            }
+        }
+
+        private static boolean isAir(byte[] voxels, int offset, int length) {
+            for (int i = offset, end = offset + length; i < end; i++) {
+                if (voxels[i] != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A block palette followed by run lengths down every column of a slab of {@code height}
+     * layers in the dense Y-major layout.
+     * <p>
+     * Terrain is highly redundant along Y, so a typical column is a handful of runs. Columns are
+     * visited Z-major, each from the bottom of the slab upwards, and runs never cross columns. With
+     * at most 16 palette entries a run is one byte, {@code index << 4 | (length - 1)}; in slabs
+     * taller than 16 a length field of 15 means the next byte holds {@code length - 16}. Larger
+     * palettes spend one byte on the index and one on {@code length - 1}. When uniform frames are
+     * elided, a single-entry palette implies one full-height run per column and no runs follow.
+     * <p>
+     * Both directions work layer by layer: the encoder finds run boundaries by comparing each
+     * layer with the one below, and the decoder copies the layer below and patches only the
+     * columns whose run ends there.
+     */
+    private static final class RunLengthFrames {
+        private static final int COLUMN_STRIDE = Chunk.SX * Chunk.SZ;
+        static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+        private RunLengthFrames() {
+        }
+
+        /**
+         * Encodes layers {@code [0, height)} of the slab starting at {@code offset} into
+         * {@code out} at {@code outPos} and returns the position after the frame.
+         */
+        static int encode(byte[] voxels, int offset, int height, boolean elideUniform, byte[] out, int outPos, Scratch scratch) {
+            byte[] boundaries = scratch.boundaries;
+            int[] counts = scratch.counts;
+            java.util.Arrays.fill(counts, 0);
+            for (int y = 1; y < height; y++) {
+                int below = offset + (y - 1) * COLUMN_STRIDE;
+                int layer = offset + y * COLUMN_STRIDE;
+                int column = 0;
+                while (column < COLUMN_STRIDE) {
+                    int mismatch = java.util.Arrays.mismatch(voxels, below + column, below + COLUMN_STRIDE,
+                            voxels, layer + column, layer + COLUMN_STRIDE);
+                    if (mismatch < 0) {
+                        break;
+                    }
+                    column += mismatch;
+                    boundaries[column * Chunk.SY + counts[column]++] = (byte) y;
+                    column++;
+                }
+            }
+
+            int[] indexOf = scratch.indexOf;
+            java.util.Arrays.fill(indexOf, -1);
+            int paletteStart = outPos + 1;
+            int paletteSize = 0;
+            for (int column = 0; column < COLUMN_STRIDE; column++) {
+                int count = counts[column];
+                for (int run = 0; run <= count; run++) {
+                    int start = run == 0 ? 0 : boundaries[column * Chunk.SY + run - 1] & 0xFF;
+                    int block = voxels[offset + column + start * COLUMN_STRIDE] & 0xFF;
+                    if (indexOf[block] < 0) {
+                        indexOf[block] = paletteSize;
+                        out[paletteStart + paletteSize++] = (byte) block;
+                    }
+                }
+            }
+            out[outPos] = (byte) (paletteSize - 1);
+            int size = paletteStart + paletteSize;
+            if (elideUniform && paletteSize == 1) {
+                return size;
+            }
+
+            boolean packed = paletteSize <= 16;
+            boolean extended = height > 16;
+            for (int column = 0; column < COLUMN_STRIDE; column++) {
+                int count = counts[column];
+                for (int run = 0; run <= count; run++) {
+                    int start = run == 0 ? 0 : boundaries[column * Chunk.SY + run - 1] & 0xFF;
+                    int end = run == count ? height : boundaries[column * Chunk.SY + run] & 0xFF;
+                    int index = indexOf[voxels[offset + column + start * COLUMN_STRIDE] & 0xFF];
+                    int length = end - start;
+                    if (!packed) {
+                        out[size++] = (byte) index;
+                        out[size++] = (byte) (length - 1);
+                    } else if (!extended || length < 16) {
+                        out[size++] = (byte) ((index << 4) | (length - 1));
+                    } else {
+                        out[size++] = (byte) ((index << 4) | 15);
+                        out[size++] = (byte) (length - 16);
+                    }
+                }
+            }
+            return size;
+        }
+
+        /**
+         * Decodes the frame in {@code encoded[start, end)} into the slab of {@code height} layers
+         * starting at {@code dstOffset}.
+         */
+        static void decode(byte[] encoded, int start, int end, int height, boolean elideUniform,
+                           byte[] dst, int dstOffset, Scratch scratch) {
+            if (end - start < 2) {
+                throw new IllegalArgumentException("Palette RLE frame too short: " + (end - start) + " bytes");
+            }
+            int paletteSize = (encoded[start] & 0xFF) + 1;
+            int paletteStart = start + 1;
+            int runsStart = paletteStart + paletteSize;
+            if (runsStart > end) {
+                throw new IllegalArgumentException("Palette RLE frame truncated in palette of " + paletteSize);
+            }
+            if (elideUniform && paletteSize == 1) {
+                if (runsStart != end) {
+                    throw new IllegalArgumentException("Uniform palette RLE frame has " + (end - runsStart) + " trailing bytes");
+                }
+                java.util.Arrays.fill(dst, dstOffset, dstOffset + height * COLUMN_STRIDE, encoded[paletteStart]);
+                return;
+            }
+            boolean packed = paletteSize <= 16;
+            boolean extended = height > 16;
+            int[] cursors = scratch.counts;
+            try {
+                // Locate every column's first run, validating the whole frame up front.
+                int cursor = runsStart;
+                for (int column = 0; column < COLUMN_STRIDE; column++) {
+                    cursors[column] = cursor;
+                    int y = 0;
+                    while (y < height) {
+                        int head = encoded[cursor++] & 0xFF;
+                        int index;
+                        int length;
+                        if (packed) {
+                            index = head >>> 4;
+                            length = (head & 15) + 1;
+                            if (extended && length == 16) {
+                                length += encoded[cursor++] & 0xFF;
+                            }
+                        } else {
+                            index = head;
+                            length = (encoded[cursor++] & 0xFF) + 1;
+                        }
+                        if (index >= paletteSize || y + length > height || cursor > end) {
+                            throw new IllegalArgumentException("Palette RLE run out of range in column " + column);
+                        }
+                        y += length;
+                    }
+                }
+                if (cursor != end) {
+                    throw new IllegalArgumentException("Palette RLE frame has " + (end - cursor) + " trailing bytes");
+                }
+            } catch (ArrayIndexOutOfBoundsException ex) {
+                throw new IllegalArgumentException("Palette RLE frame truncated", ex);
+            }
+
+            // Columns whose next run starts at layer y are chained from heads[y] through next[].
+            int[] heads = scratch.heads;
+            int[] next = scratch.next;
+            java.util.Arrays.fill(heads, 0, height, -1);
+            for (int column = COLUMN_STRIDE - 1; column >= 0; column--) {
+                next[column] = heads[0];
+                heads[0] = column;
+            }
+            for (int y = 0; y < height; y++) {
+                int layer = dstOffset + y * COLUMN_STRIDE;
+                if (y > 0) {
+                    System.arraycopy(dst, layer - COLUMN_STRIDE, dst, layer, COLUMN_STRIDE);
+                }
+                int column = heads[y];
+                while (column >= 0) {
+                    int following = next[column];
+                    int cursor = cursors[column];
+                    int head = encoded[cursor++] & 0xFF;
+                    int index;
+                    int length;
+                    if (packed) {
+                        index = head >>> 4;
+                        length = (head & 15) + 1;
+                        if (extended && length == 16) {
+                            length += encoded[cursor++] & 0xFF;
+                        }
+                    } else {
+                        index = head;
+                        length = (encoded[cursor++] & 0xFF) + 1;
+                    }
+                    cursors[column] = cursor;
+                    dst[layer + column] = encoded[paletteStart + index];
+                    int runEnd = y + length;
+                    if (runEnd < height) {
+                        next[column] = heads[runEnd];
+                        heads[runEnd] = column;
+                    }
+                    column = following;
+                }
+            }
+        }
+
+        /**
+         * Returns the remaining bytes of {@code encoded} as an array range: the backing array of a
+         * heap buffer in place, or one bulk copy of a direct or mapped buffer into the reusable
+         * staging array, since the frame decoder indexes a {@code byte[]}.
+         */
+        static Slice slice(ByteBuffer encoded, Scratch scratch) {
+            int length = encoded.remaining();
+            if (encoded.hasArray()) {
+                int start = encoded.arrayOffset() + encoded.position();
+                return new Slice(encoded.array(), start, start + length);
+            }
+            if (scratch.staging.length < length) {
+                scratch.staging = new byte[java.lang.Math.max(length, scratch.staging.length * 2)];
+            }
+            encoded.get(encoded.position(), scratch.staging, 0, length);
+            return new Slice(scratch.staging, 0, length);
+        }
+
+        record Slice(byte[] array, int start, int end) {
+        }
+
+        static final class Scratch {
+            byte[] staging = new byte[16 * 1024];
+            final byte[] boundaries = new byte[COLUMN_STRIDE * Chunk.SY];
+            final int[] counts = new int[COLUMN_STRIDE];
+            final int[] indexOf = new int[256];
+            final int[] heads = new int[Chunk.SY];
+            final int[] next = new int[COLUMN_STRIDE];
+            // Worst case: every section framed with its own full palette plus two bytes per voxel,
+            // which also covers a single whole-chunk frame.
+            final byte[] output = new byte[Chunk.SECTION_COUNT * (1 + 256 + 2 * Chunk.SECTION_VOLUME)];
+        }
+    }
+
+    private static void checkLength(int length) {
+        if (length != Chunk.TOTAL_VOXELS) {
+            throw new IllegalArgumentException("Chunk codecs expect " + Chunk.TOTAL_VOXELS + " voxels, got " + length);
+        }
     }
 }
@@ -0,0 +1,157 @@
+package com.example.voxelrt.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Player edits that fall inside a single chunk, keyed by local voxel index.
+ * <p>
+ * Keys and block ids are kept in parallel primitive arrays with open addressing, so an edit costs
+ * five bytes of payload instead of a boxed map entry, and applying or gathering the edits of one
+ * chunk only touches that chunk's entries. Edits are never removed; writing air over a voxel is
+ * itself an edit. Instances are not thread-safe and are guarded by their owner's edit lock.
+ */
+final class ChunkEdits {
+    private static final int EMPTY = -1;
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private byte[] blocks;
+    private int size;
+
+    ChunkEdits() {
+        keys = new int[MIN_CAPACITY];
+        blocks = new byte[MIN_CAPACITY];
+        java.util.Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Returns an independent copy, used to freeze the edits of a chunk for a {@link WorldView}.
+     */
+    ChunkEdits copy() {
+        ChunkEdits copy = new ChunkEdits();
+        copy.keys = keys.clone();
+        copy.blocks = blocks.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    static int localIndex(int x, int y, int z) {
+        return x + (z * Chunk.SX) + (y * Chunk.SX * Chunk.SZ);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the edited block id at the local coordinate, or -1 when the voxel was never edited.
+     */
+    int get(int x, int y, int z) {
+        int slot = find(localIndex(x, y, z));
+        return keys[slot] == EMPTY ? -1 : blocks[slot] & 0xFF;
+    }
+
+    void put(int x, int y, int z, int blockId) {
+        if ((blockId & 0xFFFFFF00) != 0) {
+            throw new IllegalArgumentException("Block ID out of range for byte storage: " + blockId);
+        }
+        int key = localIndex(x, y, z);
+        int slot = find(key);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        blocks[slot] = (byte) blockId;
+        if (size > (keys.length >>> 1)) {
+            grow();
+        }
+    }
+
+    /**
+     * Copies every edit of {@code other} over this one's.
+     */
+    void putAll(ChunkEdits other) {
+        for (int slot = 0; slot < other.keys.length; slot++) {
+            int key = other.keys[slot];
+            if (key == EMPTY) {
+                continue;
+            }
+            put(key % Chunk.SX, key / (Chunk.SX * Chunk.SZ), (key / Chunk.SX) % Chunk.SZ, other.blocks[slot] & 0xFF);
+        }
+    }
+
+    void applyTo(Chunk chunk) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            int key = keys[slot];
+            if (key == EMPTY) {
+                continue;
+            }
+            chunk.set(key % Chunk.SX, key / (Chunk.SX * Chunk.SZ), (key / Chunk.SX) % Chunk.SZ, blocks[slot] & 0xFF);
+        }
+    }
+
+    /**
+     * Writes every edit inside the local box {@code [x0, x1) x [y0, y1) x [z0, z1)} into
+     * {@code dst}, using the layout of {@link Chunk#copyBoxTo}. Walks the table once rather than
+     * probing every voxel of the box.
+     */
+    void overlay(int[] dst, int dstOffset, int rowStride, int layerStride,
+                 int x0, int y0, int z0, int x1, int y1, int z1) {
+        if (size == 0) {
+            return;
+        }
+        for (int slot = 0; slot < keys.length; slot++) {
+            int key = keys[slot];
+            if (key == EMPTY) {
+                continue;
+            }
+            int x = key % Chunk.SX;
+            int y = key / (Chunk.SX * Chunk.SZ);
+            int z = (key / Chunk.SX) % Chunk.SZ;
+            if (x < x0 || x >= x1 || y < y0 || y >= y1 || z < z0 || z >= z1) {
+                continue;
+            }
+            dst[dstOffset + (x - x0) + (z - z0) * rowStride + (y - y0) * layerStride] = blocks[slot] & 0xFF;
+        }
+    }
+
+    List<WorldStorage.ChunkEdit> toList() {
+        List<WorldStorage.ChunkEdit> result = new ArrayList<>(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            int key = keys[slot];
+            if (key == EMPTY) {
+                continue;
+            }
+            result.add(new WorldStorage.ChunkEdit(key % Chunk.SX, key / (Chunk.SX * Chunk.SZ), (key / Chunk.SX) % Chunk.SZ,
+                    blocks[slot] & 0xFF));
+        }
+        return result;
+    }
+
+    private int find(int key) {
+        int mask = keys.length - 1;
+        int hash = key * 0x9E3779B9;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        byte[] oldBlocks = blocks;
+        keys = new int[oldKeys.length << 1];
+        blocks = new byte[oldKeys.length << 1];
+        java.util.Arrays.fill(keys, EMPTY);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            int key = oldKeys[slot];
+            if (key != EMPTY) {
+                int target = find(key);
+                keys[target] = key;
+                blocks[target] = oldBlocks[slot];
+            }
+        }
+    }
+}
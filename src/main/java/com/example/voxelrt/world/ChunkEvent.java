@@ -0,0 +1,30 @@
+package com.example.voxelrt.world;
+
+/**
+ * Lifecycle notification published by {@link ChunkManager} to every {@link ChunkEventQueue}.
+ * <p>
+ * Events for one position are published in the order the manager applied them, so a consumer
+ * that replays them keeps an accurate incremental picture of the resident set. {@code chunk} is
+ * the instance the event refers to; for {@link Type#EVICTED} it is only an identity, because the
+ * instance may already have been recycled for another position.
+ */
+public record ChunkEvent(Type type, ChunkPos pos, Chunk chunk) {
+    public enum Type {
+        /**
+         * The chunk became resident and needs a full mesh.
+         */
+        INTEGRATED,
+        /**
+         * The chunk left the resident set.
+         */
+        EVICTED,
+        /**
+         * A player edit changed a voxel of the chunk.
+         */
+        EDITED,
+        /**
+         * Some sections of the chunk's mesh went stale because a neighbour changed.
+         */
+        MESH_DIRTY
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.voxelrt.world;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Drain-able subscription to {@link ChunkManager} lifecycle events, obtained from
+ * {@link ChunkManager#subscribe()}.
+ * <p>
+ * Events may be published from any thread and are buffered until the subscriber polls them, so a
+ * render-thread consumer can apply them at a fixed point in its frame. The queue is unbounded:
+ * subscribers must drain it regularly or {@link #close()} it.
+ */
+public final class ChunkEventQueue implements AutoCloseable {
+    private final ChunkManager owner;
+    private final ConcurrentLinkedQueue<ChunkEvent> events = new ConcurrentLinkedQueue<>();
+
+    ChunkEventQueue(ChunkManager owner) {
+        this.owner = owner;
+    }
+
+    void offer(ChunkEvent event) {
+        events.offer(event);
+    }
+
+    /**
+     * Returns the oldest pending event, or {@code null} when none is pending.
+     */
+    public ChunkEvent poll() {
+        return events.poll();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        owner.unsubscribe(this);
+        events.clear();
+    }
+}
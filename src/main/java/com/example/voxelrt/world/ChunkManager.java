@@ -2,8 +2,10 @@ package com.example.voxelrt.world;
 
 import com.example.voxelrt.util.concurrent.JobSystem;
 import com.example.voxelrt.world.ChunkCompression.CompressedChunkData;
+import com.example.voxelrt.world.ChunkCompression.PayloadView;
 import com.example.voxelrt.svo.SparseVoxelOctree;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -13,18 +15,34 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Keeps track of chunks that have been generated and loaded into memory.
  * <p>
- * The manager owns both the persistent edits that the player has made and an in-memory LRU cache of
+ * The manager owns both the persistent edits that the player has made and an in-memory cache of
  * chunk data. When sampling blocks the cache is consulted first and, if a chunk is missing, it will
  * be generated on demand via the {@link WorldGenerator}.
+ * <p>
+ * Resident chunks live in a {@link ChunkTable}: lookups are lock-free and only flip a CLOCK
+ * reference bit, while insertions and evictions are serialised by {@code lock}. Eviction only
+ * detaches a chunk under the lock; snapshotting, compression and persistence run on a single
+ * background worker, and the chunk returns to the pool once that work has finished.
+ * <p>
+ * Integration, eviction, edits and neighbour mesh invalidation are announced as
+ * {@link ChunkEvent}s to every {@link #subscribe() subscriber}, so consumers can keep incremental
+ * state instead of scanning the resident set each frame.
+ * <p>
+ * Generation runs through a {@link GenerationPipeline}. The column {@link GenerationStage#CLIMATE}
+ * stage can be scheduled on its own with {@link #prefetchClimate}, well beyond the load radius and
+ * behind every chunk load, so heightmaps are available for LOD before the volume stage runs.
  */
 public class ChunkManager {
     public static final int MIN_CACHE_SIZE = 64;
@@ -32,42 +50,84 @@ public class ChunkManager {
     private static final String THREAD_COUNT_PROPERTY = "voxel.chunkThreads";
     private static final String THREAD_COUNT_ENV = "VOXEL_CHUNK_THREADS";
     private static final int REQUEST_INTEGRATION_BUDGET = 2;
-    private static final int DEFAULT_SPARSE_SNAPSHOT_COUNT = DEFAULT_CACHE_SIZE * 2;
-    private static final int DEFAULT_COMPRESSED_SNAPSHOT_COUNT = DEFAULT_CACHE_SIZE * 2;
     private static final int CHUNK_VOXEL_COUNT = Chunk.TOTAL_VOXELS;
+    private static final long RESIDENT_OVERHEAD_BYTES = 512;
+    private static final long SNAPSHOT_OVERHEAD_BYTES = 96;
+    private static final Duration EVICTION_SHUTDOWN_TIMEOUT = Duration.ofSeconds(5);
+    private static final double CLIMATE_PRIORITY_OFFSET = 1.0e9;
+    private static final ThreadLocal<byte[]> RESTORE_BUFFER = ThreadLocal.withInitial(() -> new byte[Chunk.TOTAL_VOXELS]);
+    private static final ThreadLocal<byte[]> SNAPSHOT_BUFFER = ThreadLocal.withInitial(() -> new byte[Chunk.TOTAL_VOXELS]);
     private final WorldGenerator gen;
-    private final Map<ChunkPos, Chunk> map = new HashMap<>();
-    private final LinkedHashMap<ChunkPos, Chunk> lru = new LinkedHashMap<>(64, 0.75f, true);
+    private final GenerationPipeline pipeline;
+    private final ChunkTable chunks = new ChunkTable(DEFAULT_CACHE_SIZE);
+    private final LongAdder residentFootprint = new LongAdder();
     private volatile int maxLoaded;
-    private final Map<Long, Integer> edits = new HashMap<>();
+    private final Map<Long, ChunkEdits> edits = new HashMap<>();
     private final Object lock = new Object();
     private final Object editLock = new Object();
     private final JobSystem jobSystem;
+    private final JobSystem evictionJobs;
+    private final ConcurrentHashMap<ChunkPos, CompletableFuture<Void>> evicting = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<ChunkPos, CompletableFuture<Chunk>> pending = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ChunkPos, CompletableFuture<ChunkClimate>> pendingClimate = new ConcurrentHashMap<>();
     private final ConcurrentLinkedQueue<ChunkLoadResult> completed = new ConcurrentLinkedQueue<>();
     private final AtomicBoolean integratedSinceLastPoll = new AtomicBoolean();
     private final ConcurrentLinkedQueue<Chunk> chunkPool = new ConcurrentLinkedQueue<>();
     private final WorldStorage storage;
     private final Set<ChunkPos> diskLoadedChunks = new HashSet<>();
+    /**
+     * Value of {@code editSequence} at the latest edit of each chunk, guarded by {@code editLock}.
+     */
+    private final Map<Long, Long> lastEditSequence = new HashMap<>();
+    private long editSequence;
     private final LinkedHashMap<ChunkPos, SparseVoxelOctree> sparseCache = new LinkedHashMap<>(64, 0.75f, true);
     private final Object sparseLock = new Object();
-    private volatile int maxSparseSnapshots = DEFAULT_SPARSE_SNAPSHOT_COUNT;
+    private long sparseBytes;
     private final LinkedHashMap<ChunkPos, CompressedChunkData> compressedCache = new LinkedHashMap<>(64, 0.75f, true);
     private final Object compressedLock = new Object();
-    private volatile int maxCompressedSnapshots = DEFAULT_COMPRESSED_SNAPSHOT_COUNT;
+    private long compressedBytes;
+    private volatile long cacheBudgetBytes;
+    private final Set<ChunkPos> urgentGeneration = ConcurrentHashMap.newKeySet();
+    private final List<ChunkEventQueue> subscribers = new CopyOnWriteArrayList<>();
+    private final Set<Long> editsChangedSinceView = new HashSet<>();
+    private Map<Long, ChunkEdits> frozenEdits = Collections.emptyMap();
+    private volatile WorldView currentView;
+    private long viewSequence;
+    private volatile float focusX;
+    private volatile float focusZ;
+    private volatile float focusDirX;
+    private volatile float focusDirZ;
 
     public ChunkManager(WorldGenerator g, int maxLoaded) {
         this(g, maxLoaded, null);
     }
 
     public ChunkManager(WorldGenerator g, int maxLoaded, WorldStorage storage) {
+        this(g, maxLoaded, storage, (long) sanitizeMaxLoaded(maxLoaded) * CHUNK_VOXEL_COUNT);
+    }
+
+    /**
+     * @param maxLoaded        upper bound on the number of resident chunks
+     * @param cacheBudgetBytes heap budget shared by resident chunks and the compressed and sparse
+     *                         snapshot tiers
+     */
+    public ChunkManager(WorldGenerator g, int maxLoaded, WorldStorage storage, long cacheBudgetBytes) {
+        this(g, maxLoaded, storage, cacheBudgetBytes, GenerationPipeline.DEFAULT_CLIMATE_CACHE_SIZE);
+    }
+
+    /**
+     * @param climateCacheSize number of chunk climates kept for {@link #prefetchClimate}; see
+     *                         {@link #climateCacheSizeForRadius}
+     */
+    public ChunkManager(WorldGenerator g, int maxLoaded, WorldStorage storage, long cacheBudgetBytes, int climateCacheSize) {
         this.gen = g;
+        this.pipeline = new GenerationPipeline(g, climateCacheSize);
         this.maxLoaded = sanitizeMaxLoaded(maxLoaded);
-        this.maxSparseSnapshots = java.lang.Math.max(DEFAULT_SPARSE_SNAPSHOT_COUNT, this.maxLoaded * 2);
-        this.maxCompressedSnapshots = java.lang.Math.max(DEFAULT_COMPRESSED_SNAPSHOT_COUNT, this.maxLoaded * 2);
+        this.cacheBudgetBytes = java.lang.Math.max(0L, cacheBudgetBytes);
         this.storage = storage;
         int threads = resolveThreadCount();
         this.jobSystem = new JobSystem("ChunkGen-", threads);
+        this.evictionJobs = new JobSystem("ChunkEvict-", 1);
         System.out.println("[ChunkManager] Job system started with " + threads + " worker thread" + (threads == 1 ? "" : "s"));
     }
 
@@ -83,26 +143,44 @@ public class ChunkManager {
     }
 
     public Integer getEdit(int x, int y, int z) {
+        if (y < 0 || y >= Chunk.SY) {
+            return null;
+        }
+        long chunkKey = ChunkTable.key(java.lang.Math.floorDiv(x, Chunk.SX), java.lang.Math.floorDiv(z, Chunk.SZ));
+        int edit;
         synchronized (editLock) {
-            return edits.get(key(x, y, z));
+            ChunkEdits chunkEdits = edits.get(chunkKey);
+            if (chunkEdits == null) {
+                return null;
+            }
+            edit = chunkEdits.get(java.lang.Math.floorMod(x, Chunk.SX), y, java.lang.Math.floorMod(z, Chunk.SZ));
         }
+        return edit < 0 ? null : edit;
     }
 
     /**
      * Records a player edit and eagerly applies the change if the target chunk is currently loaded.
+     * Edits outside the vertical range of a chunk are ignored.
      */
     public void setEdit(int x, int y, int z, int b) {
-        long k = key(x, y, z);
+        if (y < 0 || y >= Chunk.SY) {
+            return;
+        }
         int chunkX = java.lang.Math.floorDiv(x, Chunk.SX);
         int chunkZ = java.lang.Math.floorDiv(z, Chunk.SZ);
         ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
         synchronized (editLock) {
-            edits.put(k, b);
+            long chunkKey = ChunkTable.key(chunkX, chunkZ);
+            edits.computeIfAbsent(chunkKey, k -> new ChunkEdits())
+                    .put(java.lang.Math.floorMod(x, Chunk.SX), y, java.lang.Math.floorMod(z, Chunk.SZ), b);
+            editsChangedSinceView.add(chunkKey);
+            lastEditSequence.put(chunkKey, ++editSequence);
             if (storage != null) {
+                storage.appendEdit(chunkPos, java.lang.Math.floorMod(x, Chunk.SX), y, java.lang.Math.floorMod(z, Chunk.SZ), b);
                 diskLoadedChunks.remove(chunkPos);
             }
             synchronized (compressedLock) {
-                compressedCache.remove(chunkPos);
+                removeCompressedLocked(chunkPos);
             }
         }
         invalidateSparseCacheEntry(chunkPos);
@@ -113,71 +191,49 @@ public class ChunkManager {
             int previous = c.get(localX, y, localZ);
             c.set(localX, y, localZ, b);
             if (previous != b) {
-                synchronized (lock) {
-                    markNeighborsForVoxelChange(c.pos(), localX, localZ);
-                }
+                publish(ChunkEvent.Type.EDITED, chunkPos, c);
+                markNeighborsForVoxelChange(chunkPos, localX, y, localZ);
             }
         }
     }
 
     /**
-     * Retrieves a chunk either from the cache or by generating it on demand.
+     * Retrieves a chunk from the cache, or restores or generates it on demand and waits for it.
      * <p>
-     * Any known edits within the chunk bounds are baked in after generation. The chunk is also marked
-     * as most recently used to maintain the LRU eviction order.
+     * Any known edits within the chunk bounds are baked in after loading. The chunk is also marked
+     * as recently used so the eviction hand passes over it.
      */
     public Chunk getOrLoad(ChunkPos p) {
         update();
-        synchronized (lock) {
-            Chunk cached = map.get(p);
-            if (cached != null) {
-                lru.put(p, cached);
-                return cached;
-            }
-        }
-
-        Chunk restored = restoreChunkFromCompressed(p);
-        if (restored != null) {
-            return restored;
-        }
-
-        Chunk restoredSparse = restoreChunkFromSparse(p);
-        if (restoredSparse != null) {
-            return restoredSparse;
-        }
-
-        synchronized (lock) {
-            Chunk cachedAfterRestore = map.get(p);
-            if (cachedAfterRestore != null) {
-                lru.put(p, cachedAfterRestore);
-                return cachedAfterRestore;
-            }
+        Chunk cached = chunks.get(p);
+        if (cached != null) {
+            return cached;
         }
 
-        CompletableFuture<Chunk> future = ensureTask(p);
-        Chunk chunk;
+        urgentGeneration.add(p);
         try {
-            chunk = future.get();
+            CompletableFuture<Chunk> future = ensureTask(p);
+            jobSystem.reprioritize(this::generationPriority);
+            future.get();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
-            throw new RuntimeException("Chunk generation interrupted for " + p, e);
+            throw new RuntimeException("Chunk load interrupted for " + p, e);
         } catch (ExecutionException e) {
-            throw new RuntimeException("Chunk generation failed for " + p, e.getCause());
+            throw new RuntimeException("Chunk load failed for " + p, e.getCause());
+        } catch (CancellationException e) {
+            return getOrLoad(p);
+        } finally {
+            urgentGeneration.remove(p);
         }
 
+        // The job queued its result before completing, so this integrates it exactly once.
         update();
-        synchronized (lock) {
-            Chunk loaded = map.get(p);
-            if (loaded != null) {
-                lru.put(p, loaded);
-                return loaded;
-            }
-            applyEdits(chunk);
-            map.put(p, chunk);
-            lru.put(p, chunk);
-            trimToMaxLocked();
-            return chunk;
+        Chunk loaded = chunks.get(p);
+        if (loaded != null) {
+            return loaded;
         }
+        // Integrated and demoted again by a later integration in the same pass.
+        return getOrLoad(p);
     }
 
     /**
@@ -192,21 +248,153 @@ public class ChunkManager {
         return c.get(java.lang.Math.floorMod(x, Chunk.SX), y, java.lang.Math.floorMod(z, Chunk.SZ));
     }
 
+    /**
+     * Reads the world-space box starting at ({@code minX}, {@code minY}, {@code minZ}) with the
+     * given size into {@code out}, laid out X-fastest, then Z, then Y:
+     * {@code out[x + sx * (z + sz * y)]}. Voxels outside the vertical range read as air, matching
+     * {@link #sample(int, int, int)}.
+     * <p>
+     * Each intersecting chunk is resolved once (loading it if needed, like {@code sample}), copied
+     * under a single lock acquisition that keeps it from being evicted mid-read, and then overlaid
+     * with its player edits in one pass. This replaces per-voxel {@code sample} loops, each of
+     * which would repeat the lookup, edit probe and locking.
+     *
+     * @throws IllegalArgumentException when a size is negative or {@code out} is too small
+     */
+    public void readBox(int minX, int minY, int minZ, int sx, int sy, int sz, int[] out) {
+        if (sx < 0 || sy < 0 || sz < 0) {
+            throw new IllegalArgumentException("Box size must be non-negative: " + sx + "x" + sy + "x" + sz);
+        }
+        long volume = (long) sx * sy * sz;
+        if (out.length < volume) {
+            throw new IllegalArgumentException("Output holds " + out.length + " voxels, box needs " + volume);
+        }
+        if (volume == 0) {
+            return;
+        }
+        update();
+        int layerStride = sx * sz;
+        int y0 = java.lang.Math.max(minY, 0);
+        int y1 = java.lang.Math.min(minY + sy, Chunk.SY);
+        if (y0 >= y1) {
+            java.util.Arrays.fill(out, 0, (int) volume, Blocks.AIR);
+            return;
+        }
+        if (minY < y0) {
+            java.util.Arrays.fill(out, 0, (y0 - minY) * layerStride, Blocks.AIR);
+        }
+        if (minY + sy > y1) {
+            java.util.Arrays.fill(out, (y1 - minY) * layerStride, (int) volume, Blocks.AIR);
+        }
+
+        int minChunkX = java.lang.Math.floorDiv(minX, Chunk.SX);
+        int maxChunkX = java.lang.Math.floorDiv(minX + sx - 1, Chunk.SX);
+        int minChunkZ = java.lang.Math.floorDiv(minZ, Chunk.SZ);
+        int maxChunkZ = java.lang.Math.floorDiv(minZ + sz - 1, Chunk.SZ);
+        for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+            int chunkZ0 = cz * Chunk.SZ;
+            int z0 = java.lang.Math.max(minZ, chunkZ0) - chunkZ0;
+            int z1 = java.lang.Math.min(minZ + sz, chunkZ0 + Chunk.SZ) - chunkZ0;
+            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+                int chunkX0 = cx * Chunk.SX;
+                int x0 = java.lang.Math.max(minX, chunkX0) - chunkX0;
+                int x1 = java.lang.Math.min(minX + sx, chunkX0 + Chunk.SX) - chunkX0;
+                int offset = (chunkX0 + x0 - minX) + (chunkZ0 + z0 - minZ) * sx + (y0 - minY) * layerStride;
+                ChunkPos pos = new ChunkPos(cx, cz);
+                while (true) {
+                    Chunk chunk = getOrLoad(pos);
+                    synchronized (lock) {
+                        if (chunks.peek(cx, cz) != chunk) {
+                            // Evicted between the load and the lock; resolve it again.
+                            continue;
+                        }
+                        chunk.copyBoxTo(out, offset, sx, layerStride, x0, y0, z0, x1, y1, z1);
+                    }
+                    break;
+                }
+                synchronized (editLock) {
+                    ChunkEdits chunkEdits = edits.get(ChunkTable.key(cx, cz));
+                    if (chunkEdits != null) {
+                        chunkEdits.overlay(out, offset, sx, layerStride, x0, y0, z0, x1, y1, z1);
+                    }
+                }
+            }
+        }
+    }
+
     public Chunk getIfLoaded(ChunkPos pos) {
         update();
+        return chunks.get(pos);
+    }
+
+    /**
+     * Snapshots {@code chunk} and the border columns of its loaded neighbours in a single locked
+     * pass. Holding the lock keeps neighbours from being evicted and recycled mid-copy; afterwards
+     * the snapshot can be read from any thread without further synchronisation.
+     */
+    public ChunkNeighborhood captureNeighborhood(Chunk chunk) {
         synchronized (lock) {
-            Chunk chunk = map.get(pos);
-            if (chunk != null) {
-                lru.put(pos, chunk);
+            int cx = chunk.pos().cx();
+            int cz = chunk.pos().cz();
+            return ChunkNeighborhood.capture(chunk,
+                    chunks.peek(cx - 1, cz),
+                    chunks.peek(cx + 1, cz),
+                    chunks.peek(cx, cz - 1),
+                    chunks.peek(cx, cz + 1));
+        }
+    }
+
+    /**
+     * Snapshots the loaded chunk at {@code pos} with its neighbour borders, or returns {@code null}
+     * when the chunk is not resident.
+     */
+    public ChunkNeighborhood captureNeighborhood(ChunkPos pos) {
+        synchronized (lock) {
+            Chunk chunk = chunks.get(pos);
+            if (chunk == null) {
+                return null;
             }
-            return chunk;
+            return captureNeighborhood(chunk);
         }
     }
 
-    public int loadedChunkCount() {
+    /**
+     * Publishes a new {@link WorldView} of the resident chunks and the current edits, replacing
+     * the previous one, and returns it. Must be called on the thread that modifies resident
+     * chunks, after integration and unloading. Only the edit tables that changed since the last
+     * publication are copied, and only chunks written since then need a new frozen copy.
+     */
+    public WorldView publishView() {
+        Map<Long, ChunkEdits> editsSnapshot;
+        synchronized (editLock) {
+            if (!editsChangedSinceView.isEmpty()) {
+                Map<Long, ChunkEdits> next = new HashMap<>(frozenEdits);
+                for (Long chunkKey : editsChangedSinceView) {
+                    next.put(chunkKey, edits.get(chunkKey).copy());
+                }
+                editsChangedSinceView.clear();
+                frozenEdits = next;
+            }
+            editsSnapshot = frozenEdits;
+        }
+        WorldView view;
         synchronized (lock) {
-            return map.size();
+            view = new WorldView(++viewSequence, editsSnapshot, chunks.entries());
         }
+        currentView = view;
+        return view;
+    }
+
+    /**
+     * Returns the most recently published view, or {@code null} before the first publication.
+     * Views are immutable, may be read from any thread and need no release.
+     */
+    public WorldView latestView() {
+        return currentView;
+    }
+
+    public int loadedChunkCount() {
+        return chunks.size();
     }
 
     public int maxLoadedChunks() {
@@ -227,24 +415,8 @@ public class ChunkManager {
 
     public void requestChunk(ChunkPos pos) {
         update(REQUEST_INTEGRATION_BUDGET);
-        boolean alreadyLoaded;
-        synchronized (lock) {
-            alreadyLoaded = map.containsKey(pos);
-            if (alreadyLoaded) {
-                lru.put(pos, map.get(pos));
-            }
-        }
-        if (!alreadyLoaded) {
-            if (restoreChunkFromCompressed(pos) == null && restoreChunkFromSparse(pos) == null) {
-                synchronized (lock) {
-                    Chunk cached = map.get(pos);
-                    if (cached != null) {
-                        lru.put(pos, cached);
-                        return;
-                    }
-                }
-                ensureTask(pos);
-            }
+        if (chunks.get(pos) == null) {
+            ensureTask(pos);
         }
     }
 
@@ -264,13 +436,20 @@ public class ChunkManager {
         ChunkLoadResult result;
         int integrated = 0;
         while (integrated < maxIntegrations && (result = completed.poll()) != null) {
+            if (chunks.contains(result.pos)) {
+                // A second load of the same position finished first; keep the resident copy.
+                result.chunk.prepareForPool();
+                chunkPool.offer(result.chunk);
+                continue;
+            }
             applyEdits(result.chunk);
             result.chunk.markMeshDirty();
             synchronized (lock) {
-                map.put(result.pos, result.chunk);
-                lru.put(result.pos, result.chunk);
+                chunks.put(result.pos, result.chunk);
+                result.chunk.trackFootprint(residentFootprint);
+                publish(ChunkEvent.Type.INTEGRATED, result.pos, result.chunk);
                 markNeighborsDirty(result.pos);
-                trimToMaxLocked();
+                trimToMaxLocked(result.pos);
             }
             changed = true;
             integrated++;
@@ -287,23 +466,22 @@ public class ChunkManager {
 
     public void shutdown() {
         jobSystem.close();
+        try {
+            evictionJobs.awaitQuiescence(EVICTION_SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        evictionJobs.close();
     }
 
     public void flushEdits() {
         if (storage == null) {
             return;
         }
-        List<ChunkSnapshot> snapshots;
-        synchronized (lock) {
-            snapshots = new ArrayList<>(map.size());
-            for (Map.Entry<ChunkPos, Chunk> entry : map.entrySet()) {
-                snapshots.add(new ChunkSnapshot(entry.getKey(), entry.getValue()));
-            }
-        }
-        for (ChunkSnapshot snapshot : snapshots) {
-            storage.saveChunkEditsAsync(snapshot.pos(), gatherEditsForChunk(snapshot.pos()));
-            CompressedChunkData compressed = ChunkCompression.compress(snapshot.chunk().captureDenseData());
-            storage.saveChunkDataAsync(snapshot.pos(), compressed);
+        awaitEvictions();
+        for (ChunkTable.Node entry : chunks.entries()) {
+            CompressedChunkData compressed = ChunkCompression.compress(entry.chunk.captureDenseData(SNAPSHOT_BUFFER.get()));
+            storage.saveChunkDataAsync(entry.pos, compressed);
         }
         storage.waitForPendingSaves();
     }
@@ -313,34 +491,144 @@ public class ChunkManager {
         synchronized (lock) {
             if (sanitized != this.maxLoaded) {
                 this.maxLoaded = sanitized;
-                trimToMaxLocked();
+                trimToMaxLocked(null);
             }
         }
-        maxSparseSnapshots = java.lang.Math.max(DEFAULT_SPARSE_SNAPSHOT_COUNT, sanitized * 2);
-        maxCompressedSnapshots = java.lang.Math.max(DEFAULT_COMPRESSED_SNAPSHOT_COUNT, sanitized * 2);
-        trimSparseCache();
-        trimCompressedCache();
     }
 
     public int getMaxLoaded() {
         return maxLoaded;
     }
 
-    private void trimToMaxLocked() {
+    public void setCacheBudgetBytes(long budgetBytes) {
+        synchronized (lock) {
+            cacheBudgetBytes = java.lang.Math.max(0L, budgetBytes);
+            enforceCacheBudgetLocked(null);
+        }
+    }
+
+    public long getCacheBudgetBytes() {
+        return cacheBudgetBytes;
+    }
+
+    /**
+     * Returns the current occupancy of each cache tier. Resident sizes come from running totals
+     * that chunks update as their sections and meshes change, so the figures track edits as well
+     * as loads and evictions.
+     */
+    public CacheStats cacheStats() {
+        int residentCount = chunks.size();
+        long residentBytes = residentBytes();
+        int compressedCount;
+        long compressed;
+        synchronized (compressedLock) {
+            compressedCount = compressedCache.size();
+            compressed = compressedBytes;
+        }
+        int sparseCount;
+        long sparse;
+        synchronized (sparseLock) {
+            sparseCount = sparseCache.size();
+            sparse = sparseBytes;
+        }
+        return new CacheStats(cacheBudgetBytes, residentCount, residentBytes,
+                compressedCount, compressed, sparseCount, sparse);
+    }
+
+    /**
+     * Evicts chunks until the table fits {@code maxLoaded}. {@code keep}, when non-null, is the chunk
+     * that was just inserted and is never chosen, mirroring how an LRU list would protect it.
+     */
+    private void trimToMaxLocked(ChunkPos keep) {
         int limit = this.maxLoaded;
-        while (lru.size() > limit) {
-            Iterator<ChunkPos> it = lru.keySet().iterator();
-            if (!it.hasNext()) break;
-            ChunkPos oldest = it.next();
-            it.remove();
-            Chunk removed = map.remove(oldest);
-            if (removed != null) {
-                markNeighborsDirty(oldest);
-                evictChunkLocked(oldest, removed);
+        while (chunks.size() > limit) {
+            ChunkTable.Node victim = chunks.evictionCandidate(keep);
+            if (victim == null) break;
+            chunks.remove(victim.pos);
+            markNeighborsDirty(victim.pos);
+            detachChunkLocked(victim.pos, victim.chunk);
+        }
+        enforceCacheBudgetLocked(keep);
+    }
+
+    /**
+     * Brings the combined footprint of all tiers back under {@link #cacheBudgetBytes}, releasing
+     * the cheapest-to-lose entries first. Sparse snapshots go first because every evicted chunk
+     * also has a compressed snapshot; compressed snapshots follow because they can be reloaded
+     * from disk or regenerated; resident chunks are demoted last, in CLOCK order, and never below
+     * {@link #MIN_CACHE_SIZE}. Demoting a resident chunk produces its snapshots on the eviction
+     * worker, which trims the snapshot tiers again once they are stored.
+     */
+    private void enforceCacheBudgetLocked(ChunkPos keep) {
+        long budget = cacheBudgetBytes;
+        while (true) {
+            long resident = residentBytes();
+            long snapshots;
+            synchronized (sparseLock) {
+                snapshots = sparseBytes;
+            }
+            synchronized (compressedLock) {
+                snapshots += compressedBytes;
             }
+            if (resident + snapshots <= budget) {
+                return;
+            }
+            if (dropOldestSparseSnapshot() || dropOldestCompressedSnapshot()) {
+                continue;
+            }
+            if (chunks.size() <= MIN_CACHE_SIZE) {
+                return;
+            }
+            ChunkTable.Node victim = chunks.evictionCandidate(keep);
+            if (victim == null) {
+                return;
+            }
+            chunks.remove(victim.pos);
+            markNeighborsDirty(victim.pos);
+            detachChunkLocked(victim.pos, victim.chunk);
         }
     }
 
+    /**
+     * Snapshot-only variant of {@link #enforceCacheBudgetLocked} for the eviction worker, which
+     * must not demote resident chunks because releasing their meshes needs the render thread.
+     */
+    private void trimSnapshotsToBudget() {
+        long resident = residentBytes();
+        long budget = cacheBudgetBytes;
+        while (true) {
+            long snapshots;
+            synchronized (sparseLock) {
+                snapshots = sparseBytes;
+            }
+            synchronized (compressedLock) {
+                snapshots += compressedBytes;
+            }
+            if (resident + snapshots <= budget) {
+                return;
+            }
+            if (!dropOldestSparseSnapshot() && !dropOldestCompressedSnapshot()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Estimated footprint of the resident tier, read from the running per-chunk totals that
+     * resident chunks keep current in {@link #residentFootprint}.
+     */
+    private long residentBytes() {
+        return residentFootprint.sum() + (long) chunks.size() * RESIDENT_OVERHEAD_BYTES;
+    }
+
+    private static long compressedCost(CompressedChunkData data) {
+        return SNAPSHOT_OVERHEAD_BYTES + data.compressed().length;
+    }
+
+    private static long sparseCost(SparseVoxelOctree snapshot) {
+        return SNAPSHOT_OVERHEAD_BYTES + snapshot.estimateMemoryUsageBytes();
+    }
+
     private static int sanitizeMaxLoaded(int maxLoaded) {
         return java.lang.Math.max(MIN_CACHE_SIZE, maxLoaded);
     }
@@ -368,69 +656,209 @@ public class ChunkManager {
     private void markNeighborsDirty(ChunkPos pos) {
         int cx = pos.cx();
         int cz = pos.cz();
-        Chunk neighbor;
-        neighbor = map.get(new ChunkPos(cx - 1, cz));
-        if (neighbor != null) neighbor.markMeshDirty();
-        neighbor = map.get(new ChunkPos(cx + 1, cz));
-        if (neighbor != null) neighbor.markMeshDirty();
-        neighbor = map.get(new ChunkPos(cx, cz - 1));
-        if (neighbor != null) neighbor.markMeshDirty();
-        neighbor = map.get(new ChunkPos(cx, cz + 1));
-        if (neighbor != null) neighbor.markMeshDirty();
-    }
-
-    private void markNeighborsForVoxelChange(ChunkPos pos, int localX, int localZ) {
+        markMeshDirty(cx - 1, cz);
+        markMeshDirty(cx + 1, cz);
+        markMeshDirty(cx, cz - 1);
+        markMeshDirty(cx, cz + 1);
+    }
+
+    private void markMeshDirty(int cx, int cz) {
+        Chunk neighbor = chunks.peek(cx, cz);
+        if (neighbor != null) {
+            neighbor.markMeshDirty();
+            publish(ChunkEvent.Type.MESH_DIRTY, neighbor.pos(), neighbor);
+        }
+    }
+
+    private void markNeighborsForVoxelChange(ChunkPos pos, int localX, int y, int localZ) {
         int cx = pos.cx();
         int cz = pos.cz();
         if (localX == 0) {
-            Chunk west = map.get(new ChunkPos(cx - 1, cz));
-            if (west != null) west.markMeshDirty();
+            markMeshDirtyAt(cx - 1, cz, y);
         }
         if (localX == Chunk.SX - 1) {
-            Chunk east = map.get(new ChunkPos(cx + 1, cz));
-            if (east != null) east.markMeshDirty();
+            markMeshDirtyAt(cx + 1, cz, y);
         }
         if (localZ == 0) {
-            Chunk north = map.get(new ChunkPos(cx, cz - 1));
-            if (north != null) north.markMeshDirty();
+            markMeshDirtyAt(cx, cz - 1, y);
         }
         if (localZ == Chunk.SZ - 1) {
-            Chunk south = map.get(new ChunkPos(cx, cz + 1));
-            if (south != null) south.markMeshDirty();
+            markMeshDirtyAt(cx, cz + 1, y);
         }
     }
 
+    private void markMeshDirtyAt(int cx, int cz, int y) {
+        Chunk neighbor = chunks.peek(cx, cz);
+        if (neighbor != null) {
+            neighbor.markMeshDirtyAt(y);
+            publish(ChunkEvent.Type.MESH_DIRTY, neighbor.pos(), neighbor);
+        }
+    }
+
+    /**
+     * Registers a new event subscriber. Events published from then on are buffered in the
+     * returned queue until it is drained or closed.
+     */
+    public ChunkEventQueue subscribe() {
+        ChunkEventQueue queue = new ChunkEventQueue(this);
+        subscribers.add(queue);
+        return queue;
+    }
+
+    void unsubscribe(ChunkEventQueue queue) {
+        subscribers.remove(queue);
+    }
+
+    private void publish(ChunkEvent.Type type, ChunkPos pos, Chunk chunk) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ChunkEvent event = new ChunkEvent(type, pos, chunk);
+        for (ChunkEventQueue queue : subscribers) {
+            queue.offer(event);
+        }
+    }
+
+    /**
+     * Copies the resident chunks. Per-frame consumers should prefer {@link #subscribe()} and
+     * maintain their own set instead of copying the whole table.
+     */
     public List<Chunk> snapshotLoadedChunks() {
-        synchronized (lock) {
-            return new ArrayList<>(map.values());
+        return chunks.values();
+    }
+
+    /**
+     * Updates the point and horizontal view direction that queued chunk generation is ordered
+     * around, and re-scores the jobs still waiting in the queue. Intended to be called once per
+     * frame with the camera position.
+     */
+    public void setGenerationFocus(float x, float z, float dirX, float dirZ) {
+        float length = (float) java.lang.Math.sqrt(dirX * dirX + dirZ * dirZ);
+        focusX = x;
+        focusZ = z;
+        focusDirX = length > 1e-4f ? dirX / length : 0f;
+        focusDirZ = length > 1e-4f ? dirZ / length : 0f;
+        jobSystem.reprioritize(this::generationPriority);
+    }
+
+    /**
+     * Scores a queued generation job; lower runs first. Climate prefetches always rank behind
+     * chunk loads. The distance from the focus to the chunk
+     * centre is scaled from 1x for chunks straight ahead to 2x for chunks directly behind, so
+     * visible terrain fills in first without starving nearby chunks outside the view.
+     */
+    private double generationPriority(Object key) {
+        if (key instanceof ClimateRequest request) {
+            return CLIMATE_PRIORITY_OFFSET + generationPriority(request.pos());
         }
+        ChunkPos pos = (ChunkPos) key;
+        if (urgentGeneration.contains(pos)) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        float dx = (pos.cx() + 0.5f) * Chunk.SX - focusX;
+        float dz = (pos.cz() + 0.5f) * Chunk.SZ - focusZ;
+        double distance = java.lang.Math.sqrt(dx * dx + dz * dz);
+        if (distance < 1e-3) {
+            return 0.0;
+        }
+        double facing = (dx * focusDirX + dz * focusDirZ) / distance;
+        return distance * (1.5 - 0.5 * facing);
     }
 
-    private CompletableFuture<Chunk> ensureTask(ChunkPos pos) {
-        return pending.computeIfAbsent(pos, p -> {
-            CompletableFuture<Chunk> future = jobSystem.submit(() -> {
-                Chunk chunk = obtainChunk(p);
-                try {
-                    chunk.fill(gen);
-                    return chunk;
-                } catch (Throwable t) {
-                    chunk.prepareForPool();
-                    chunkPool.offer(chunk);
-                    throw t;
+    /**
+     * Climate cache size that holds a prefetch ring of {@code radius} chunks.
+     */
+    public static int climateCacheSizeForRadius(int radius) {
+        return GenerationPipeline.climateCapacityForRadius(radius);
+    }
+
+    /**
+     * Queues the climate stage for every chunk within {@code radius} of {@code center} that is
+     * neither resident, loading, nor already cached. The jobs run behind all chunk loads. The
+     * radius is clamped to the ring the climate cache can hold, since a larger ring would evict
+     * its own entries and queue them again on the next move.
+     */
+    public void prefetchClimate(ChunkPos center, int radius) {
+        radius = java.lang.Math.min(radius, pipeline.maxPrefetchRadius());
+        for (int cz = center.cz() - radius; cz <= center.cz() + radius; cz++) {
+            for (int cx = center.cx() - radius; cx <= center.cx() + radius; cx++) {
+                ChunkPos pos = new ChunkPos(cx, cz);
+                if (chunks.contains(pos) || pending.containsKey(pos) || pipeline.cachedClimate(pos) != null) {
+                    continue;
                 }
-            });
+                pendingClimate.computeIfAbsent(pos, p -> {
+                    CompletableFuture<ChunkClimate> future = jobSystem.submit(() -> pipeline.climate(p),
+                            new ClimateRequest(p), generationPriority(new ClimateRequest(p)));
+                    future.whenComplete((climate, throwable) -> {
+                        pendingClimate.remove(p, future);
+                        if (throwable != null && !(throwable instanceof CancellationException)) {
+                            System.err.println("[ChunkManager] Failed to compute climate for " + p + ": " + throwable);
+                        }
+                    });
+                    return future;
+                });
+            }
+        }
+    }
+
+    /**
+     * Returns the climate of {@code pos} if it has already been computed, without scheduling any
+     * work. Suitable for heightmap LOD of chunks that are not loaded.
+     */
+    public ChunkClimate climateIfReady(ChunkPos pos) {
+        return pipeline.cachedClimate(pos);
+    }
+
+    public int pendingClimateCount() {
+        return pendingClimate.size();
+    }
+
+    private CompletableFuture<Chunk> ensureTask(ChunkPos pos) {
+        return pending.compute(pos, (p, existing) -> {
+            // A finished job stays mapped until its completion callback has run, but its result
+            // has already been queued and may since have been integrated and evicted again.
+            if (existing != null && !existing.isDone()) {
+                return existing;
+            }
+            CompletableFuture<Chunk> future = jobSystem.submit(() -> loadChunk(p), p, generationPriority(p));
             future.whenComplete((chunk, throwable) -> {
                 pending.remove(p, future);
-                if (throwable == null) {
-                    completed.add(new ChunkLoadResult(p, chunk));
-                } else {
-                    System.err.println("[ChunkManager] Failed to generate chunk " + p + ": " + throwable);
+                if (throwable != null && !(throwable instanceof CancellationException)) {
+                    System.err.println("[ChunkManager] Failed to load chunk " + p + ": " + throwable);
                 }
             });
             return future;
         });
     }
 
+    /**
+     * Worker stage shared by restores and generation: waits out a pending eviction of the same
+     * position, then tries the compressed tier (memory, then disk), the sparse tier and finally
+     * the generator. Disk edits are read here too, so integration on the caller thread does no I/O.
+     * The result is queued before the job completes so a caller blocked on the future always
+     * finds it in {@link #update()}; the completion callback may run after the caller wakes.
+     */
+    private Chunk loadChunk(ChunkPos p) {
+        awaitEviction(p);
+        Chunk chunk = restoreChunkFromCompressed(p);
+        if (chunk == null) {
+            chunk = restoreChunkFromSparse(p);
+        }
+        if (chunk == null) {
+            chunk = obtainChunk(p);
+            try {
+                pipeline.generate(chunk);
+            } catch (Throwable t) {
+                chunk.prepareForPool();
+                chunkPool.offer(chunk);
+                throw t;
+            }
+        }
+        loadDiskEditsIfNeeded(p);
+        completed.add(new ChunkLoadResult(p, chunk));
+        return chunk;
+    }
+
     private Chunk obtainChunk(ChunkPos pos) {
         Chunk chunk = chunkPool.poll();
         if (chunk != null) {
@@ -443,177 +871,195 @@ public class ChunkManager {
     private void applyEdits(Chunk chunk) {
         ChunkPos pos = chunk.pos();
         loadDiskEditsIfNeeded(pos);
-        int wx0 = pos.cx() * Chunk.SX;
-        int wz0 = pos.cz() * Chunk.SZ;
         synchronized (editLock) {
-            for (var e : edits.entrySet()) {
-                long k = e.getKey();
-                int x = decodeX(k);
-                int y = decodeY(k);
-                int z = decodeZ(k);
-                if (x >= wx0 && x < wx0 + Chunk.SX && z >= wz0 && z < wz0 + Chunk.SZ) {
-                    chunk.set(x - wx0, y, z - wz0, e.getValue());
-                }
+            ChunkEdits chunkEdits = edits.get(ChunkTable.key(pos.cx(), pos.cz()));
+            if (chunkEdits != null) {
+                chunkEdits.applyTo(chunk);
             }
         }
     }
 
+    /**
+     * Merges the stored edits of {@code pos} into memory unless that already happened. The read
+     * runs outside {@code editLock}; when the chunk is edited while it is in flight, the result may
+     * hold an older value for the edited voxel, so it is discarded and the edits are read again.
+     */
     private void loadDiskEditsIfNeeded(ChunkPos pos) {
         if (storage == null) {
             return;
         }
-        synchronized (editLock) {
-            if (diskLoadedChunks.contains(pos)) {
-                return;
-            }
-        }
-        List<WorldStorage.ChunkEdit> editsForChunk = storage.loadChunkEdits(pos);
-        if (!editsForChunk.isEmpty()) {
-            int wx0 = pos.cx() * Chunk.SX;
-            int wz0 = pos.cz() * Chunk.SZ;
+        long chunkKey = ChunkTable.key(pos.cx(), pos.cz());
+        while (true) {
+            long readSequence;
             synchronized (editLock) {
-                for (WorldStorage.ChunkEdit edit : editsForChunk) {
-                    long key = key(wx0 + edit.x(), edit.y(), wz0 + edit.z());
-                    edits.put(key, edit.block());
+                if (diskLoadedChunks.contains(pos)) {
+                    return;
                 }
-                diskLoadedChunks.add(pos);
+                readSequence = editSequence;
             }
-        } else {
+            List<WorldStorage.ChunkEdit> editsForChunk = storage.loadChunkEdits(pos);
             synchronized (editLock) {
+                if (lastEditSequence.getOrDefault(chunkKey, 0L) > readSequence) {
+                    continue;
+                }
+                if (!editsForChunk.isEmpty()) {
+                    ChunkEdits chunkEdits = edits.computeIfAbsent(chunkKey, k -> new ChunkEdits());
+                    editsChangedSinceView.add(chunkKey);
+                    for (WorldStorage.ChunkEdit edit : editsForChunk) {
+                        if (edit.x() < Chunk.SX && edit.z() < Chunk.SZ && edit.y() < Chunk.SY) {
+                            chunkEdits.put(edit.x(), edit.y(), edit.z(), edit.block());
+                        }
+                    }
+                }
                 diskLoadedChunks.add(pos);
+                return;
             }
         }
     }
 
-    private List<WorldStorage.ChunkEdit> gatherEditsForChunk(ChunkPos pos) {
-        if (storage == null) {
-            return Collections.emptyList();
-        }
-        int wx0 = pos.cx() * Chunk.SX;
-        int wz0 = pos.cz() * Chunk.SZ;
-        List<WorldStorage.ChunkEdit> chunkEdits = new ArrayList<>();
-        synchronized (editLock) {
-            for (var entry : edits.entrySet()) {
-                long k = entry.getKey();
-                int x = decodeX(k);
-                int y = decodeY(k);
-                int z = decodeZ(k);
-                if (x >= wx0 && x < wx0 + Chunk.SX && z >= wz0 && z < wz0 + Chunk.SZ) {
-                    chunkEdits.add(new WorldStorage.ChunkEdit(x - wx0, y, z - wz0, entry.getValue()));
+    /**
+     * Hands a chunk that was just removed from the table to the eviction worker. Only the GPU mesh
+     * is released here, since that must happen on the calling (render) thread; the voxel data stays
+     * untouched until {@link #retireChunk} has captured it.
+     */
+    private void detachChunkLocked(ChunkPos pos, Chunk chunk) {
+        publish(ChunkEvent.Type.EVICTED, pos, chunk);
+        chunk.untrackFootprint();
+        chunk.releaseMesh();
+        CompletableFuture<Void> future = evictionJobs.submit(() -> retireChunk(pos, chunk));
+        evicting.put(pos, future);
+        future.whenComplete((ignored, throwable) -> {
+            evicting.remove(pos, future);
+            if (throwable != null) {
+                System.err.println("[ChunkManager] Failed to evict chunk " + pos + ": " + throwable);
+            }
+        });
+    }
+
+    /**
+     * Eviction worker stage: snapshots, compresses and persists a detached chunk, then recycles it.
+     */
+    private void retireChunk(ChunkPos pos, Chunk chunk) {
+        try {
+            CompressedChunkData compressed = ChunkCompression.compress(chunk.captureDenseData(SNAPSHOT_BUFFER.get()));
+            storeCompressedSnapshot(pos, compressed);
+            if (storage != null) {
+                storage.saveChunkDataAsync(pos, compressed);
+                synchronized (editLock) {
+                    diskLoadedChunks.remove(pos);
                 }
             }
+            maybeStoreSparseChunk(pos, chunk);
+        } finally {
+            chunk.prepareForPool();
+            chunkPool.offer(chunk);
         }
-        return chunkEdits;
+        trimSnapshotsToBudget();
     }
 
-    private void evictChunkLocked(ChunkPos pos, Chunk chunk) {
-        CompressedChunkData compressed = ChunkCompression.compress(chunk.captureDenseData());
-        storeCompressedSnapshot(pos, compressed);
-        if (storage != null) {
-            storage.saveChunkDataAsync(pos, compressed);
-            storage.saveChunkEditsAsync(pos, gatherEditsForChunk(pos));
-            synchronized (editLock) {
-                diskLoadedChunks.remove(pos);
+    /**
+     * Blocks until a pending eviction of {@code pos}, if any, has stored its snapshots.
+     */
+    private void awaitEviction(ChunkPos pos) {
+        CompletableFuture<Void> future = evicting.get(pos);
+        if (future != null) {
+            try {
+                future.join();
+            } catch (RuntimeException ignored) {
+                // Already reported by the eviction callback; fall back to disk or regeneration.
             }
         }
-        maybeStoreSparseChunk(pos, chunk);
-        chunk.releaseMesh();
-        chunk.prepareForPool();
-        chunkPool.offer(chunk);
     }
 
-    private static int decodeX(long key) {
-        int x = (int) ((key >> 42) & 0x1FFFFF);
-        if (x >= 0x100000) x -= 0x200000;
-        return x;
+    private void awaitEvictions() {
+        for (ChunkPos pos : new ArrayList<>(evicting.keySet())) {
+            awaitEviction(pos);
+        }
     }
 
-    private static int decodeY(long key) {
-        return (int) ((key >> 32) & 0x3FF);
+    private void invalidateSparseCacheEntry(ChunkPos pos) {
+        synchronized (sparseLock) {
+            removeSparseLocked(pos);
+        }
     }
 
-    private static int decodeZ(long key) {
-        int z = (int) (key & 0x1FFFFF);
-        if (z >= 0x100000) z -= 0x200000;
-        return z;
+    private CompressedChunkData removeCompressedLocked(ChunkPos pos) {
+        CompressedChunkData removed = compressedCache.remove(pos);
+        if (removed != null) {
+            compressedBytes -= compressedCost(removed);
+        }
+        return removed;
     }
 
-    private void invalidateSparseCacheEntry(ChunkPos pos) {
-        synchronized (sparseLock) {
-            sparseCache.remove(pos);
+    private SparseVoxelOctree removeSparseLocked(ChunkPos pos) {
+        SparseVoxelOctree removed = sparseCache.remove(pos);
+        if (removed != null) {
+            sparseBytes -= sparseCost(removed);
         }
+        return removed;
     }
 
+    /**
+     * Rebuilds a chunk from its compressed snapshot, taking it from memory or disk, or returns
+     * {@code null} when none exists. The chunk is not integrated.
+     */
     private Chunk restoreChunkFromCompressed(ChunkPos pos) {
         CompressedChunkData snapshot;
         synchronized (compressedLock) {
-            snapshot = compressedCache.remove(pos);
+            snapshot = removeCompressedLocked(pos);
         }
-        if (snapshot == null && storage != null) {
-            snapshot = storage.loadChunkData(pos);
+        byte[] voxels = RESTORE_BUFFER.get();
+        Integer sections;
+        if (snapshot != null) {
+            sections = decodeSnapshot(pos, snapshot.view(), voxels);
+        } else if (storage != null) {
+            sections = storage.readChunkData(pos, payload -> decodeSnapshot(pos, payload, voxels));
+        } else {
+            return null;
         }
-        if (snapshot == null) {
+        if (sections == null) {
             return null;
         }
+        Chunk chunk = obtainChunk(pos);
+        chunk.loadSections(voxels, sections);
+        return chunk;
+    }
+
+    /**
+     * Decodes the non-empty sections of a snapshot into {@code voxels} and returns their mask, or
+     * {@code null} when the snapshot cannot be used and the chunk should be regenerated.
+     */
+    private static Integer decodeSnapshot(ChunkPos pos, PayloadView snapshot, byte[] voxels) {
         if (snapshot.uncompressedSize() != Chunk.TOTAL_VOXELS) {
             System.err.println("[ChunkManager] Ignoring chunk data for " + pos + " due to unexpected payload size " + snapshot.uncompressedSize());
             return null;
         }
-        if (snapshot.allAir()) {
-            return integrateEmptyChunk(pos);
-        }
-        byte[] dense = ChunkCompression.decompress(snapshot);
-        Chunk chunk = obtainChunk(pos);
-        chunk.applyDenseData(dense);
-        applyEdits(chunk);
-        chunk.markMeshDirty();
-        synchronized (lock) {
-            map.put(pos, chunk);
-            lru.put(pos, chunk);
-            markNeighborsDirty(pos);
-            trimToMaxLocked();
+        try {
+            int sections = ChunkCompression.nonEmptySections(snapshot);
+            ChunkCompression.decompressSections(snapshot, sections, voxels);
+            return sections;
+        } catch (RuntimeException ex) {
+            System.err.println("[ChunkManager] Discarding unreadable chunk data for " + pos + ": " + ex.getMessage());
+            return null;
         }
-        integratedSinceLastPoll.set(true);
-        return chunk;
     }
 
+    /**
+     * Rebuilds a chunk from its sparse snapshot, or returns {@code null} when none is cached. The
+     * chunk is not integrated.
+     */
     private Chunk restoreChunkFromSparse(ChunkPos pos) {
         SparseVoxelOctree snapshot;
         synchronized (sparseLock) {
-            snapshot = sparseCache.remove(pos);
+            snapshot = removeSparseLocked(pos);
         }
         if (snapshot == null) {
             return null;
         }
-        if (snapshot.isAllAir()) {
-            // Nothing to restore – treat as empty chunk.
-            return integrateEmptyChunk(pos);
-        }
-        Chunk chunk = obtainChunk(pos);
-        snapshot.applyToChunk(chunk);
-        applyEdits(chunk);
-        chunk.markMeshDirty();
-        synchronized (lock) {
-            map.put(pos, chunk);
-            lru.put(pos, chunk);
-            markNeighborsDirty(pos);
-            trimToMaxLocked();
-        }
-        integratedSinceLastPoll.set(true);
-        return chunk;
-    }
-
-    private Chunk integrateEmptyChunk(ChunkPos pos) {
         Chunk chunk = obtainChunk(pos);
-        applyEdits(chunk);
-        chunk.markMeshDirty();
-        synchronized (lock) {
-            map.put(pos, chunk);
-            lru.put(pos, chunk);
-            markNeighborsDirty(pos);
-            trimToMaxLocked();
+        if (!snapshot.isAllAir()) {
+            snapshot.applyToChunk(chunk);
         }
-        integratedSinceLastPoll.set(true);
         return chunk;
     }
 
@@ -628,49 +1074,39 @@ public class ChunkManager {
             return;
         }
         synchronized (sparseLock) {
+            removeSparseLocked(pos);
             sparseCache.put(pos, snapshot);
-            trimSparseCacheLocked();
-        }
-    }
-
-    private void trimSparseCache() {
-        synchronized (sparseLock) {
-            trimSparseCacheLocked();
-        }
-    }
-
-    private void trimSparseCacheLocked() {
-        while (sparseCache.size() > maxSparseSnapshots) {
-            Iterator<Map.Entry<ChunkPos, SparseVoxelOctree>> it = sparseCache.entrySet().iterator();
-            if (!it.hasNext()) {
-                break;
-            }
-            it.next();
-            it.remove();
+            sparseBytes += sparseCost(snapshot);
         }
     }
 
     private void storeCompressedSnapshot(ChunkPos pos, CompressedChunkData data) {
         synchronized (compressedLock) {
+            removeCompressedLocked(pos);
             compressedCache.put(pos, data);
-            trimCompressedCacheLocked();
+            compressedBytes += compressedCost(data);
         }
     }
 
-    private void trimCompressedCache() {
-        synchronized (compressedLock) {
-            trimCompressedCacheLocked();
+    private boolean dropOldestSparseSnapshot() {
+        synchronized (sparseLock) {
+            Iterator<ChunkPos> it = sparseCache.keySet().iterator();
+            if (!it.hasNext()) {
+                return false;
+            }
+            removeSparseLocked(it.next());
+            return true;
         }
     }
 
-    private void trimCompressedCacheLocked() {
-        while (compressedCache.size() > maxCompressedSnapshots) {
-            Iterator<Map.Entry<ChunkPos, CompressedChunkData>> it = compressedCache.entrySet().iterator();
+    private boolean dropOldestCompressedSnapshot() {
+        synchronized (compressedLock) {
+            Iterator<ChunkPos> it = compressedCache.keySet().iterator();
             if (!it.hasNext()) {
-                break;
+                return false;
             }
-            it.next();
-            it.remove();
+            removeCompressedLocked(it.next());
+            return true;
         }
     }
 
@@ -678,23 +1114,14 @@ public class ChunkManager {
         if (radius < 0) {
             return;
         }
-        List<Map.Entry<ChunkPos, Chunk>> toEvict = new ArrayList<>();
         synchronized (lock) {
-            Iterator<Map.Entry<ChunkPos, Chunk>> it = map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<ChunkPos, Chunk> entry = it.next();
-                ChunkPos pos = entry.getKey();
-                if (chebyshevDistance(pos, center) > radius) {
-                    it.remove();
-                    lru.remove(pos);
-                    markNeighborsDirty(pos);
-                    toEvict.add(entry);
+            for (ChunkTable.Node entry : chunks.entries()) {
+                if (chebyshevDistance(entry.pos, center) > radius && chunks.remove(entry.pos) != null) {
+                    markNeighborsDirty(entry.pos);
+                    detachChunkLocked(entry.pos, entry.chunk);
                 }
             }
         }
-        for (Map.Entry<ChunkPos, Chunk> entry : toEvict) {
-            evictChunkLocked(entry.getKey(), entry.getValue());
-        }
 
         if (!pending.isEmpty()) {
             List<Map.Entry<ChunkPos, CompletableFuture<Chunk>>> toCancel = new ArrayList<>();
@@ -711,10 +1138,39 @@ public class ChunkManager {
         }
     }
 
+    /**
+     * Cancels queued climate prefetches farther than {@code radius} from {@code center}.
+     */
+    public void cancelClimateOutsideRadius(ChunkPos center, int radius) {
+        for (Map.Entry<ChunkPos, CompletableFuture<ChunkClimate>> entry : pendingClimate.entrySet()) {
+            if (chebyshevDistance(entry.getKey(), center) > radius && pendingClimate.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().cancel(true);
+            }
+        }
+    }
+
     private static int chebyshevDistance(ChunkPos a, ChunkPos b) {
         return java.lang.Math.max(java.lang.Math.abs(a.cx() - b.cx()), java.lang.Math.abs(a.cz() - b.cz()));
     }
 
+    /**
+     * Job key for a queued climate prefetch, kept distinct from chunk load keys.
+     */
+    private record ClimateRequest(ChunkPos pos) {
+    }
+
+    /**
+     * Per-tier occupancy of the chunk cache in entries and estimated heap bytes.
+     */
+    public record CacheStats(long budgetBytes,
+                             int residentChunks, long residentBytes,
+                             int compressedSnapshots, long compressedBytes,
+                             int sparseSnapshots, long sparseBytes) {
+        public long totalBytes() {
+            return residentBytes + compressedBytes + sparseBytes;
+        }
+    }
+
     private static final class ChunkLoadResult {
         final ChunkPos pos;
         final Chunk chunk;
@@ -724,7 +1180,4 @@ public class ChunkManager {
             this.chunk = chunk;
         }
     }
-
-    private record ChunkSnapshot(ChunkPos pos, Chunk chunk) {
-    }
 }
@@ -0,0 +1,173 @@
+package com.example.voxelrt.world;
+
+/**
+ * Self-contained snapshot of a chunk plus a one-voxel border taken from its four horizontal
+ * neighbours.
+ * <p>
+ * The voxels are copied into a single padded 18×256×18 buffer so meshing and cluster detection
+ * can read across chunk borders without resolving neighbouring chunks or touching the
+ * {@link ChunkManager} lock. Local coordinates match the centre chunk: X and Z range over
+ * {@code [-1, 16]}, where {@code -1} and {@code 16} address the neighbours' border columns.
+ * Diagonal corner columns are never needed for face culling and are left as air, as are borders
+ * whose neighbour was not loaded when the snapshot was taken.
+ */
+public final class ChunkNeighborhood {
+    public static final int PX = Chunk.SX + 2;
+    public static final int PZ = Chunk.SZ + 2;
+    private static final int LAYER = PX * PZ;
+
+    private final ChunkPos pos;
+    private final byte[] voxels = new byte[PX * Chunk.SY * PZ];
+    private final int[] solidRows = new int[Chunk.SY * PZ];
+    private final int minNonAirY;
+    private final int maxNonAirY;
+    private final int paddedMinY;
+    private final int paddedMaxY;
+
+    private ChunkNeighborhood(ChunkPos pos, int minNonAirY, int maxNonAirY, int paddedMinY, int paddedMaxY) {
+        this.pos = pos;
+        this.minNonAirY = minNonAirY;
+        this.maxNonAirY = maxNonAirY;
+        this.paddedMinY = paddedMinY;
+        this.paddedMaxY = paddedMaxY;
+    }
+
+    /**
+     * Copies {@code center} and the facing border columns of its neighbours. Any neighbour may be
+     * {@code null}. Callers are responsible for keeping the chunks stable during the copy; see
+     * {@link ChunkManager#captureNeighborhood(Chunk)}.
+     */
+    public static ChunkNeighborhood capture(Chunk center, Chunk west, Chunk east, Chunk north, Chunk south) {
+        int paddedMin = center.minNonAirY();
+        int paddedMax = center.maxNonAirY();
+        for (Chunk neighbor : new Chunk[]{west, east, north, south}) {
+            if (neighbor == null || neighbor.isEmpty()) {
+                continue;
+            }
+            paddedMin = paddedMin < 0 ? neighbor.minNonAirY() : java.lang.Math.min(paddedMin, neighbor.minNonAirY());
+            paddedMax = java.lang.Math.max(paddedMax, neighbor.maxNonAirY());
+        }
+        ChunkNeighborhood hood = new ChunkNeighborhood(center.pos(), center.minNonAirY(), center.maxNonAirY(),
+                paddedMin, paddedMax);
+        if (paddedMin < 0) {
+            return hood;
+        }
+
+        byte[] dst = hood.voxels;
+        center.copyColumnsTo(dst, index(0, 0, 0), PX, LAYER, 0, Chunk.SX, 0, Chunk.SZ);
+        if (west != null) {
+            west.copyColumnsTo(dst, index(-1, 0, 0), PX, LAYER, Chunk.SX - 1, Chunk.SX, 0, Chunk.SZ);
+        }
+        if (east != null) {
+            east.copyColumnsTo(dst, index(Chunk.SX, 0, 0), PX, LAYER, 0, 1, 0, Chunk.SZ);
+        }
+        if (north != null) {
+            north.copyColumnsTo(dst, index(0, 0, -1), PX, LAYER, 0, Chunk.SX, Chunk.SZ - 1, Chunk.SZ);
+        }
+        if (south != null) {
+            south.copyColumnsTo(dst, index(0, 0, Chunk.SZ), PX, LAYER, 0, Chunk.SX, 0, 1);
+        }
+
+        int[] rows = hood.solidRows;
+        for (int y = paddedMin; y <= paddedMax; y++) {
+            int base = y * PZ;
+            for (int z = 0; z < Chunk.SZ; z++) {
+                int row = center.solidRow(y, z) << 1;
+                if (west != null) {
+                    row |= (west.solidRow(y, z) >>> (Chunk.SX - 1)) & 1;
+                }
+                if (east != null) {
+                    row |= (east.solidRow(y, z) & 1) << (Chunk.SX + 1);
+                }
+                rows[base + z + 1] = row;
+            }
+            if (north != null) {
+                rows[base] = north.solidRow(y, Chunk.SZ - 1) << 1;
+            }
+            if (south != null) {
+                rows[base + PZ - 1] = south.solidRow(y, 0) << 1;
+            }
+        }
+        return hood;
+    }
+
+    private static int index(int x, int y, int z) {
+        return (x + 1) + (z + 1) * PX + y * LAYER;
+    }
+
+    public ChunkPos pos() {
+        return pos;
+    }
+
+    public int get(int x, int y, int z) {
+        if (x < -1 || x > Chunk.SX || z < -1 || z > Chunk.SZ || y < 0 || y >= Chunk.SY) {
+            return Blocks.AIR;
+        }
+        return voxels[index(x, y, z)] & 0xFF;
+    }
+
+    public boolean isSolid(int x, int y, int z) {
+        if (x < -1 || x > Chunk.SX || z < -1 || z > Chunk.SZ || y < 0 || y >= Chunk.SY) {
+            return false;
+        }
+        return ((solidRows[y * PZ + z + 1] >>> (x + 1)) & 1) != 0;
+    }
+
+    /**
+     * Returns an 18-bit occupancy mask for the padded row at ({@code y}, {@code z}). Bit
+     * {@code x + 1} is set when the voxel at {@code x} is solid, so bit 0 is the west border and
+     * bit 17 the east border.
+     */
+    public int solidRow(int y, int z) {
+        if (y < 0 || y >= Chunk.SY || z < -1 || z > Chunk.SZ) {
+            return 0;
+        }
+        return solidRows[y * PZ + z + 1];
+    }
+
+    /**
+     * Returns whether the centre chunk's layer at {@code y} contains only air.
+     */
+    public boolean isLayerEmpty(int y) {
+        if (y < minNonAirY || y > maxNonAirY) {
+            return true;
+        }
+        int base = y * PZ + 1;
+        int any = 0;
+        for (int z = 0; z < Chunk.SZ; z++) {
+            any |= solidRows[base + z];
+        }
+        return (any & (((1 << Chunk.SX) - 1) << 1)) == 0;
+    }
+
+    /**
+     * Lowest non-air layer of the centre chunk, or -1 when it is empty.
+     */
+    public int minNonAirY() {
+        return minNonAirY;
+    }
+
+    /**
+     * Highest non-air layer of the centre chunk, or -1 when it is empty.
+     */
+    public int maxNonAirY() {
+        return maxNonAirY;
+    }
+
+    /**
+     * Lowest non-air layer across the centre chunk and its captured borders, or -1 when all are
+     * empty. The bound is taken from whole neighbour chunks, so it may be looser than the border
+     * columns alone.
+     */
+    public int paddedMinY() {
+        return paddedMinY;
+    }
+
+    /**
+     * Highest non-air layer across the centre chunk and its captured borders, or -1 when all are
+     * empty.
+     */
+    public int paddedMaxY() {
+        return paddedMaxY;
+    }
+}
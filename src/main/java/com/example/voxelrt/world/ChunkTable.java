@@ -0,0 +1,230 @@
+package com.example.voxelrt.world;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Concurrent table of resident chunks keyed by packed chunk coordinates.
+ * <p>
+ * Reads never lock: buckets hold immutable chains that writers replace wholesale, and resizes
+ * publish a fresh bucket array, so a reader always walks a consistent chain. Structural updates
+ * ({@link #put}, {@link #remove}, {@link #evictionCandidate}) must be serialised by the caller;
+ * {@link ChunkManager} does so with its own lock.
+ * <p>
+ * Recency is tracked with CLOCK reference bits instead of an access-ordered list. A lookup only
+ * sets a flag on the entry it found (and only when it was clear), so concurrent readers do not
+ * contend on a shared structure. The eviction hand sweeps the buckets, clearing set bits and
+ * returning the first entry that has not been touched since the previous sweep.
+ */
+final class ChunkTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile AtomicReferenceArray<Node> buckets;
+    private volatile int size;
+    private int clockHand;
+
+    ChunkTable(int expectedSize) {
+        buckets = new AtomicReferenceArray<>(capacityFor(expectedSize));
+    }
+
+    static long key(int cx, int cz) {
+        return ((long) cx << 32) | (cz & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the chunk at the given coordinates and marks it as recently used.
+     */
+    Chunk get(int cx, int cz) {
+        Node node = find(key(cx, cz));
+        if (node == null) {
+            return null;
+        }
+        if (!node.referenced) {
+            node.referenced = true;
+        }
+        return node.chunk;
+    }
+
+    Chunk get(ChunkPos pos) {
+        return get(pos.cx(), pos.cz());
+    }
+
+    /**
+     * Returns the chunk at the given coordinates without affecting its eviction priority.
+     */
+    Chunk peek(int cx, int cz) {
+        Node node = find(key(cx, cz));
+        return node == null ? null : node.chunk;
+    }
+
+    boolean contains(ChunkPos pos) {
+        return find(key(pos.cx(), pos.cz())) != null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a weakly consistent copy of the resident chunks.
+     */
+    List<Chunk> values() {
+        AtomicReferenceArray<Node> table = buckets;
+        List<Chunk> result = new ArrayList<>(size);
+        for (int i = 0; i < table.length(); i++) {
+            for (Node node = table.get(i); node != null; node = node.next) {
+                result.add(node.chunk);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a weakly consistent copy of the resident entries.
+     */
+    List<Node> entries() {
+        AtomicReferenceArray<Node> table = buckets;
+        List<Node> result = new ArrayList<>(size);
+        for (int i = 0; i < table.length(); i++) {
+            for (Node node = table.get(i); node != null; node = node.next) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inserts or replaces the chunk stored at {@code pos}. New entries start out referenced so
+     * they survive at least one sweep of the eviction hand.
+     */
+    Chunk put(ChunkPos pos, Chunk chunk) {
+        long key = key(pos.cx(), pos.cz());
+        AtomicReferenceArray<Node> table = buckets;
+        int index = indexFor(key, table.length());
+        Node head = table.get(index);
+        Node existing = findInChain(head, key);
+        Node rest = existing == null ? head : without(head, existing);
+        table.set(index, new Node(key, pos, chunk, rest, true));
+        if (existing != null) {
+            return existing.chunk;
+        }
+        size++;
+        if (size > table.length() - (table.length() >>> 2)) {
+            resize(table.length() << 1);
+        }
+        return null;
+    }
+
+    Chunk remove(ChunkPos pos) {
+        long key = key(pos.cx(), pos.cz());
+        AtomicReferenceArray<Node> table = buckets;
+        int index = indexFor(key, table.length());
+        Node head = table.get(index);
+        Node existing = findInChain(head, key);
+        if (existing == null) {
+            return null;
+        }
+        table.set(index, without(head, existing));
+        size--;
+        return existing.chunk;
+    }
+
+    /**
+     * Advances the CLOCK hand and returns the first entry whose reference bit was already clear,
+     * clearing the bits it passes over. The entry at {@code exclude} is skipped. Returns
+     * {@code null} when no other entry is resident.
+     */
+    Node evictionCandidate(ChunkPos exclude) {
+        long excludeKey = exclude == null ? 0L : key(exclude.cx(), exclude.cz());
+        if (size == 0 || (exclude != null && size == 1 && find(excludeKey) != null)) {
+            return null;
+        }
+        AtomicReferenceArray<Node> table = buckets;
+        int length = table.length();
+        for (int step = 0; step <= length * 2; step++) {
+            int index = (clockHand + step) & (length - 1);
+            for (Node node = table.get(index); node != null; node = node.next) {
+                if (exclude != null && node.key == excludeKey) {
+                    continue;
+                }
+                if (node.referenced) {
+                    node.referenced = false;
+                    continue;
+                }
+                clockHand = index;
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private Node find(long key) {
+        AtomicReferenceArray<Node> table = buckets;
+        return findInChain(table.get(indexFor(key, table.length())), key);
+    }
+
+    private static Node findInChain(Node node, long key) {
+        while (node != null) {
+            if (node.key == key) {
+                return node;
+            }
+            node = node.next;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a copy of the chain starting at {@code head} with {@code target} unlinked. Nodes
+     * after the target are shared; nodes before it are cloned so readers of the old chain are
+     * unaffected.
+     */
+    private static Node without(Node head, Node target) {
+        if (head == target) {
+            return target.next;
+        }
+        return new Node(head.key, head.pos, head.chunk, without(head.next, target), head.referenced);
+    }
+
+    private void resize(int capacity) {
+        AtomicReferenceArray<Node> old = buckets;
+        AtomicReferenceArray<Node> table = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < old.length(); i++) {
+            for (Node node = old.get(i); node != null; node = node.next) {
+                int index = indexFor(node.key, capacity);
+                table.set(index, new Node(node.key, node.pos, node.chunk, table.get(index), node.referenced));
+            }
+        }
+        clockHand = 0;
+        buckets = table;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity - (capacity >>> 2) < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int indexFor(long key, int length) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (length - 1);
+    }
+
+    static final class Node {
+        final long key;
+        final ChunkPos pos;
+        final Chunk chunk;
+        final Node next;
+        volatile boolean referenced;
+
+        Node(long key, ChunkPos pos, Chunk chunk, Node next, boolean referenced) {
+            this.key = key;
+            this.pos = pos;
+            this.chunk = chunk;
+            this.next = next;
+            this.referenced = referenced;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.voxelrt.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of player edits with group commit.
+ * <p>
+ * Appends only encode the edit into an in-memory batch and never block on I/O. A single commit
+ * task on the supplied executor swaps the batch out and writes it with one gathering write and one
+ * {@code fsync}, so however many edits arrived meanwhile share that cost. Each batch is framed as
+ * {@code [count][records][crc32]}; on replay a batch that is short or fails its checksum marks the
+ * torn tail of a crash and is cut off together with everything after it.
+ * <p>
+ * The journal holds no index of its own. Its owner keeps the replayed and appended edits in memory
+ * and, in {@link #checkpoint}, compacts them into baseline storage before the log is truncated.
+ */
+final class EditJournal implements AutoCloseable {
+    private static final int MAGIC = 0x56584A4C; // "VXJL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+    // chunk x, chunk z, local voxel index, block id
+    private static final int RECORD_BYTES = 4 + 4 + 2 + 1;
+
+    /**
+     * Work run under the journal's file lock, such as compacting journaled edits.
+     */
+    @FunctionalInterface
+    interface Compaction {
+        void run() throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ReplayConsumer {
+        void accept(ChunkPos pos, int x, int y, int z, int block);
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Executor committer;
+    private final long checkpointBytes;
+    private final Compaction checkpointCompaction;
+    private final Object lock = new Object();
+    private final Object fileLock = new Object();
+    private final CRC32 crc = new CRC32();
+    private final ByteBuffer frameHead = ByteBuffer.allocate(Integer.BYTES);
+    private final ByteBuffer frameTail = ByteBuffer.allocate(Integer.BYTES);
+    private final LongAdder bytesWritten = new LongAdder();
+    private ByteBuffer pending = ByteBuffer.allocate(1024 * RECORD_BYTES);
+    private ByteBuffer spare = ByteBuffer.allocate(1024 * RECORD_BYTES);
+    private int pendingCount;
+    private long appendedSeq;
+    private long durableSeq;
+    private boolean commitScheduled;
+    private long end;
+
+    /**
+     * Opens or creates the journal at {@code file}. Once it grows past {@code checkpointBytes} the
+     * commit task runs {@code checkpointCompaction} and truncates it.
+     */
+    EditJournal(Path file, Executor committer, long checkpointBytes, Compaction checkpointCompaction) throws IOException {
+        this.file = file;
+        this.committer = committer;
+        this.checkpointBytes = checkpointBytes;
+        this.checkpointCompaction = checkpointCompaction;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(FORMAT_VERSION);
+                header.flip();
+                channel.truncate(0);
+                writeFully(header, 0);
+                channel.force(false);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                readFully(header, 0);
+                int magic = header.getInt(0);
+                int version = header.getInt(Integer.BYTES);
+                if (magic != MAGIC || version != FORMAT_VERSION) {
+                    throw new IOException("Unsupported edit journal " + file + " (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+                }
+            }
+            end = HEADER_BYTES;
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Feeds every intact record to {@code consumer} in append order, cuts off a torn tail and
+     * returns the number of records replayed. Must be called once, before the first append.
+     */
+    int replay(ReplayConsumer consumer) throws IOException {
+        synchronized (fileLock) {
+            long size = channel.size();
+            ByteBuffer data = ByteBuffer.allocate((int) java.lang.Math.min(size - HEADER_BYTES, Integer.MAX_VALUE));
+            readFully(data, HEADER_BYTES);
+            data.flip();
+            int replayed = 0;
+            while (data.remaining() >= 2 * Integer.BYTES) {
+                int start = data.position();
+                int count = data.getInt(start);
+                long recordBytes = (long) count * RECORD_BYTES;
+                if (count <= 0 || recordBytes + 2 * Integer.BYTES > data.remaining()) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data.slice(start, Integer.BYTES + (int) recordBytes));
+                if ((int) crc.getValue() != data.getInt(start + Integer.BYTES + (int) recordBytes)) {
+                    break;
+                }
+                data.position(start + Integer.BYTES);
+                for (int i = 0; i < count; i++) {
+                    int cx = data.getInt();
+                    int cz = data.getInt();
+                    int index = data.getShort() & 0xFFFF;
+                    int block = data.get() & 0xFF;
+                    consumer.accept(new ChunkPos(cx, cz), index % Chunk.SX, index / (Chunk.SX * Chunk.SZ),
+                            (index / Chunk.SX) % Chunk.SZ, block);
+                }
+                data.position(data.position() + Integer.BYTES);
+                replayed += count;
+            }
+            end = HEADER_BYTES + data.position();
+            if (end < size) {
+                System.err.println("[EditJournal] Discarding " + (size - end) + " bytes of torn journal tail in " + file);
+                channel.truncate(end);
+                channel.force(false);
+            }
+            return replayed;
+        }
+    }
+
+    /**
+     * Queues one edit for the next group commit.
+     */
+    void append(ChunkPos pos, int x, int y, int z, int block) {
+        boolean schedule;
+        synchronized (lock) {
+            if (pending.remaining() < RECORD_BYTES) {
+                ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+            pending.putInt(pos.cx()).putInt(pos.cz()).putShort((short) ChunkEdits.localIndex(x, y, z)).put((byte) block);
+            pendingCount++;
+            appendedSeq++;
+            schedule = !commitScheduled;
+            commitScheduled = true;
+        }
+        if (schedule) {
+            committer.execute(this::commitLoop);
+        }
+    }
+
+    /**
+     * Blocks until every edit appended so far has been committed.
+     */
+    void awaitDurable() {
+        synchronized (lock) {
+            long target = appendedSeq;
+            while (durableSeq < target) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code compaction} with commits held off and then truncates the journal. The compaction
+     * must move every journaled edit into baseline storage; if it fails the journal is kept.
+     */
+    void checkpoint(Compaction compaction) throws IOException {
+        synchronized (fileLock) {
+            compaction.run();
+            channel.truncate(HEADER_BYTES);
+            channel.force(false);
+            end = HEADER_BYTES;
+        }
+    }
+
+    /**
+     * Runs {@code compaction} with commits held off, without truncating.
+     */
+    void exclusive(Compaction compaction) throws IOException {
+        synchronized (fileLock) {
+            compaction.run();
+        }
+    }
+
+    /**
+     * Bytes appended since the journal was opened, across truncations.
+     */
+    long bytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        awaitDurable();
+        synchronized (fileLock) {
+            channel.close();
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            synchronized (lock) {
+                if (pendingCount == 0) {
+                    commitScheduled = false;
+                    return;
+                }
+            }
+            commitBatch();
+        }
+    }
+
+    private void commitBatch() {
+        synchronized (fileLock) {
+            ByteBuffer batch;
+            int count;
+            long seq;
+            synchronized (lock) {
+                batch = pending;
+                count = pendingCount;
+                seq = appendedSeq;
+                pending = spare;
+                pending.clear();
+                pendingCount = 0;
+            }
+            batch.flip();
+            frameHead.clear();
+            frameHead.putInt(0, count);
+            crc.reset();
+            crc.update(frameHead.duplicate());
+            crc.update(batch.duplicate());
+            frameTail.clear();
+            frameTail.putInt(0, (int) crc.getValue());
+            try {
+                channel.position(end);
+                ByteBuffer[] frame = {frameHead, batch, frameTail};
+                long length = Integer.BYTES + batch.remaining() + Integer.BYTES;
+                long written = 0;
+                while (written < length) {
+                    written += channel.write(frame);
+                }
+                channel.force(false);
+                end += length;
+                bytesWritten.add(length);
+            } catch (IOException ex) {
+                // The edits stay in their owner's memory and reach baseline storage at the next
+                // checkpoint; only their crash safety is lost.
+                System.err.println("[EditJournal] Failed to commit " + count + " edits to " + file + ": " + ex.getMessage());
+            }
+            synchronized (lock) {
+                batch.clear();
+                spare = batch;
+                durableSeq = seq;
+                lock.notifyAll();
+            }
+            if (end > checkpointBytes) {
+                try {
+                    checkpoint(checkpointCompaction);
+                } catch (IOException ex) {
+                    System.err.println("[EditJournal] Checkpoint of " + file + " failed, keeping the journal: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of edit journal " + file);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+}
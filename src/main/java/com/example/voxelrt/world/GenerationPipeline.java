@@ -0,0 +1,93 @@
+package com.example.voxelrt.world;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the {@link GenerationStage}s for chunks and caches the output of the column stage.
+ * <p>
+ * Climate results are kept in a bounded LRU map so that a chunk whose climate was prefetched, or
+ * that is regenerated after eviction, skips straight to the {@link GenerationStage#VOLUME} stage.
+ * Climate for a position is computed outside the cache lock; two threads racing for the same
+ * position compute identical results and the later one wins.
+ */
+final class GenerationPipeline {
+    static final int DEFAULT_CLIMATE_CACHE_SIZE = 1024;
+
+    private final WorldGenerator gen;
+    private final int climateCapacity;
+    private final Object climateLock = new Object();
+    private final LinkedHashMap<ChunkPos, ChunkClimate> climateCache;
+
+    GenerationPipeline(WorldGenerator gen, int climateCapacity) {
+        if (climateCapacity <= 0) {
+            throw new IllegalArgumentException("climateCapacity must be positive");
+        }
+        this.gen = gen;
+        this.climateCapacity = climateCapacity;
+        this.climateCache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ChunkPos, ChunkClimate> eldest) {
+                return size() > GenerationPipeline.this.climateCapacity;
+            }
+        };
+    }
+
+    /**
+     * Number of climate entries needed to keep a square prefetch ring of {@code radius} chunks
+     * cached, with room for the row a one-chunk move brings in on each axis.
+     */
+    static int climateCapacityForRadius(int radius) {
+        long side = 2L * java.lang.Math.max(0, radius) + 1;
+        return (int) java.lang.Math.min(Integer.MAX_VALUE, side * side + 2 * side);
+    }
+
+    /**
+     * Largest prefetch radius whose ring fits the climate cache, so prefetched entries are not
+     * evicted before the chunks that need them are generated.
+     */
+    int maxPrefetchRadius() {
+        int radius = 0;
+        while (climateCapacityForRadius(radius + 1) <= climateCapacity) {
+            radius++;
+        }
+        return radius;
+    }
+
+    /**
+     * Returns the cached climate for {@code pos}, or {@code null} when it has not been computed.
+     */
+    ChunkClimate cachedClimate(ChunkPos pos) {
+        synchronized (climateLock) {
+            return climateCache.get(pos);
+        }
+    }
+
+    /**
+     * Runs the {@link GenerationStage#CLIMATE} stage for {@code pos}, reusing a cached result.
+     */
+    ChunkClimate climate(ChunkPos pos) {
+        ChunkClimate climate = cachedClimate(pos);
+        if (climate != null) {
+            return climate;
+        }
+        climate = gen.sampleClimate(pos);
+        synchronized (climateLock) {
+            climateCache.put(pos, climate);
+        }
+        return climate;
+    }
+
+    /**
+     * Runs both stages for {@code chunk}, which must already be reset to its position.
+     */
+    void generate(Chunk chunk) {
+        chunk.fill(gen, climate(chunk.pos()));
+    }
+
+    int cachedClimateCount() {
+        synchronized (climateLock) {
+            return climateCache.size();
+        }
+    }
+}
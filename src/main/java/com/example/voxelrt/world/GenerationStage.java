@@ -0,0 +1,21 @@
+package com.example.voxelrt.world;
+
+/**
+ * Stages of world generation in dependency order.
+ * <p>
+ * {@link #CLIMATE} works on 2D columns and produces a {@link ChunkClimate} that is cached and may be
+ * scheduled on its own. {@link #VOLUME} fills the chunk from that climate in a single chunk job:
+ * terrain, carving, decoration and finalization all write the same voxel buffer, whose only useful
+ * intermediate form is the finished chunk. Both stages read only their own chunk.
+ */
+public enum GenerationStage {
+    /**
+     * Ground height, biome and surface materials per column.
+     */
+    CLIMATE,
+    /**
+     * Solid and air from the 3D density field with surface and filler layers, caves carved out of
+     * it, then trees, shrubs, cacti and rocks clipped to the chunk.
+     */
+    VOLUME
+}
@@ -6,6 +6,8 @@ import org.joml.Vector3f;
  * CPU-side collision helpers used for simple physics interactions such as player movement.
  */
 public class Physics {
+    private static final ThreadLocal<int[]> SCRATCH = ThreadLocal.withInitial(() -> new int[64]);
+
     public static boolean isSolid(ChunkManager cm, int x, int y, int z) {
         if (y < 0 || y >= Chunk.SY) return true;
         return cm.sample(x, y, z) != Blocks.AIR;
@@ -41,8 +43,20 @@ public class Physics {
         int minX = (int) java.lang.Math.floor(pos.x - r), maxX = (int) java.lang.Math.floor(pos.x + r);
         int minY = (int) java.lang.Math.floor(pos.y), maxY = (int) java.lang.Math.floor(pos.y + h);
         int minZ = (int) java.lang.Math.floor(pos.z - r), maxZ = (int) java.lang.Math.floor(pos.z + r);
-        for (int z = minZ; z <= maxZ; z++)
-            for (int y = minY; y <= maxY; y++) for (int x = minX; x <= maxX; x++) if (isSolid(cm, x, y, z)) return true;
+        if (minY < 0 || maxY >= Chunk.SY) return true;
+        int sx = maxX - minX + 1, sy = maxY - minY + 1, sz = maxZ - minZ + 1;
+        int[] voxels = scratch(sx * sy * sz);
+        cm.readBox(minX, minY, minZ, sx, sy, sz, voxels);
+        for (int i = 0, n = sx * sy * sz; i < n; i++) if (voxels[i] != Blocks.AIR) return true;
         return false;
     }
-}
\ No newline at end of file
+
+    private static int[] scratch(int size) {
+        int[] buffer = SCRATCH.get();
+        if (buffer.length < size) {
+            buffer = new int[size];
+            SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+}
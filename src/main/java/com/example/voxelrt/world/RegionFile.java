@@ -0,0 +1,294 @@
+package com.example.voxelrt.world;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * One file holding the records of a {@value #REGION_SIZE}×{@value #REGION_SIZE} block of chunks.
+ * <p>
+ * The file is a sequence of {@value #SECTOR_BYTES}-byte sectors. Sector 0 is the offset table,
+ * one int per chunk packing the first sector of its record ({@code << 8}) and the number of
+ * sectors it spans; sector 1 holds the magic and format version. A record is a 4-byte length
+ * followed by its payload, zero-padded to whole sectors.
+ * <p>
+ * Rewrites never overwrite the sectors of the live record: the new record goes to free sectors
+ * first and the table entry is switched afterwards. Only files opened with {@code syncWrites}
+ * force the new sectors to disk before switching the entry, and keep the old sectors reserved
+ * until {@link #force()} has made the switch durable, so that a crash leaves either the previous
+ * or the new record readable. Without it the operating system may write the entry before the
+ * record, and a crash can leave a record that fails to read.
+ * <p>
+ * Reads either copy a record out with a positional read or return a slice of a read-only mapping
+ * of the file. Callers hold {@link #lock()}: its read lock for {@link #read} and
+ * {@link #readMapped}, which may run concurrently, and its write lock for everything else.
+ */
+final class RegionFile implements AutoCloseable {
+    static final int REGION_SHIFT = 5;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+    static final int SECTOR_BYTES = 4096;
+
+    private static final int CHUNKS_PER_REGION = REGION_SIZE * REGION_SIZE;
+    private static final int HEADER_SECTORS = 2;
+    private static final int MAGIC = 0x56585247; // "VXRG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_SECTORS_PER_RECORD = 0xFF;
+    private static final int MAX_SECTOR_OFFSET = 0xFFFFFF;
+    private static final int LENGTH_BYTES = 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean syncWrites;
+    private final int[] offsets = new int[CHUNKS_PER_REGION];
+    private final BitSet usedSectors = new BitSet();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // sectors of replaced records that stay reserved until the next force
+    private final BitSet unsyncedFree = new BitSet();
+    private boolean unsynced;
+    private final Object mappingLock = new Object();
+    private volatile MappedByteBuffer mapping;
+    private volatile boolean closed;
+
+    RegionFile(Path file, boolean syncWrites) throws IOException {
+        this.file = file;
+        this.syncWrites = syncWrites;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                writeHeader();
+            } else {
+                readHeader();
+            }
+        } catch (IOException | RuntimeException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    ReentrantReadWriteLock lock() {
+        return lock;
+    }
+
+    static int regionCoord(int chunkCoord) {
+        return chunkCoord >> REGION_SHIFT;
+    }
+
+    /**
+     * Returns the payload stored for the chunk, or {@code null} when the region holds none.
+     */
+    byte[] read(ChunkPos pos) throws IOException {
+        int entry = offsets[index(pos)];
+        if (entry == 0) {
+            return null;
+        }
+        int sectors = entry & MAX_SECTORS_PER_RECORD;
+        ByteBuffer buffer = ByteBuffer.allocate(sectors * SECTOR_BYTES);
+        readFully(buffer, (long) (entry >>> 8) * SECTOR_BYTES);
+        buffer.flip();
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Corrupt record length " + length + " for chunk " + pos + " in " + file);
+        }
+        byte[] payload = new byte[length];
+        buffer.get(payload);
+        return payload;
+    }
+
+    /**
+     * Returns the chunk's payload as a read-only slice of a mapping of the whole file, or
+     * {@code null} when the region holds none. The file is mapped on first use and remapped only
+     * when a record lies past the end of the current mapping. The slice is valid while the caller
+     * holds the read lock; the next write or delete may reuse its sectors.
+     */
+    ByteBuffer readMapped(ChunkPos pos) throws IOException {
+        int entry = offsets[index(pos)];
+        if (entry == 0) {
+            return null;
+        }
+        long start = (long) (entry >>> 8) * SECTOR_BYTES;
+        long end = start + (long) (entry & MAX_SECTORS_PER_RECORD) * SECTOR_BYTES;
+        if (end > Integer.MAX_VALUE) {
+            byte[] payload = read(pos);
+            return ByteBuffer.wrap(payload).asReadOnlyBuffer();
+        }
+        MappedByteBuffer mapped = mapping;
+        if (mapped == null || end > mapped.capacity()) {
+            // Concurrent readers may all find the mapping too short; only one of them remaps.
+            synchronized (mappingLock) {
+                mapped = mapping;
+                if (mapped == null || end > mapped.capacity()) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, java.lang.Math.min(channel.size(), Integer.MAX_VALUE));
+                    mapping = mapped;
+                }
+            }
+        }
+        int length = mapped.getInt((int) start);
+        if (length < 0 || length > end - start - LENGTH_BYTES) {
+            throw new IOException("Corrupt record length " + length + " for chunk " + pos + " in " + file);
+        }
+        return mapped.slice((int) start + LENGTH_BYTES, length);
+    }
+
+    /**
+     * Stores {@code payload} as the chunk's record, replacing any previous one.
+     */
+    void write(ChunkPos pos, byte[] payload) throws IOException {
+        int sectors = (LENGTH_BYTES + payload.length + SECTOR_BYTES - 1) / SECTOR_BYTES;
+        if (sectors > MAX_SECTORS_PER_RECORD) {
+            throw new IOException("Record for chunk " + pos + " needs " + sectors + " sectors, limit is " + MAX_SECTORS_PER_RECORD);
+        }
+        int index = index(pos);
+        int start = allocate(sectors);
+        if (start > MAX_SECTOR_OFFSET) {
+            throw new IOException("Region file " + file + " is full");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(sectors * SECTOR_BYTES);
+        buffer.putInt(payload.length).put(payload);
+        buffer.clear();
+        writeFully(buffer, (long) start * SECTOR_BYTES);
+        if (syncWrites) {
+            channel.force(false);
+        }
+        usedSectors.set(start, start + sectors);
+        replaceEntry(index, (start << 8) | sectors);
+    }
+
+    /**
+     * Drops the chunk's record, if any. Its sectors are reused by later writes.
+     */
+    void delete(ChunkPos pos) throws IOException {
+        int index = index(pos);
+        if (offsets[index] != 0) {
+            replaceEntry(index, 0);
+        }
+    }
+
+    /**
+     * Forces the table entries switched since the last call to disk and releases the sectors of
+     * the records they replaced. Does nothing for files opened without {@code syncWrites}.
+     */
+    void force() throws IOException {
+        if (!unsynced) {
+            return;
+        }
+        channel.force(false);
+        usedSectors.andNot(unsyncedFree);
+        unsyncedFree.clear();
+        unsynced = false;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            try {
+                force();
+            } finally {
+                closed = true;
+                mapping = null;
+                channel.close();
+            }
+        }
+    }
+
+    private void replaceEntry(int index, int entry) throws IOException {
+        int previous = offsets[index];
+        ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES).putInt(0, entry);
+        writeFully(buffer, (long) index * Integer.BYTES);
+        offsets[index] = entry;
+        if (syncWrites) {
+            unsynced = true;
+        }
+        if (previous != 0) {
+            int start = previous >>> 8;
+            int end = start + (previous & MAX_SECTORS_PER_RECORD);
+            if (syncWrites) {
+                // Until the new entry is on disk, the old one may still be the one that survives.
+                unsyncedFree.set(start, end);
+            } else {
+                usedSectors.clear(start, end);
+            }
+        }
+    }
+
+    /**
+     * Returns the first sector of the lowest free run of {@code sectors} sectors; runs past the
+     * end of the file grow it.
+     */
+    private int allocate(int sectors) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int nextUsed = usedSectors.nextSetBit(start);
+            if (nextUsed < 0 || nextUsed - start >= sectors) {
+                return start;
+            }
+            start = usedSectors.nextClearBit(nextUsed);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES);
+        header.putInt(SECTOR_BYTES, MAGIC);
+        header.putInt(SECTOR_BYTES + Integer.BYTES, FORMAT_VERSION);
+        writeFully(header, 0);
+        usedSectors.set(0, HEADER_SECTORS);
+    }
+
+    private void readHeader() throws IOException {
+        if (channel.size() < (long) HEADER_SECTORS * SECTOR_BYTES) {
+            throw new IOException("Region file " + file + " is truncated");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_BYTES);
+        readFully(header, 0);
+        int magic = header.getInt(SECTOR_BYTES);
+        int version = header.getInt(SECTOR_BYTES + Integer.BYTES);
+        if (magic != MAGIC || version != FORMAT_VERSION) {
+            throw new IOException("Unsupported region file " + file + " (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+        }
+        usedSectors.set(0, HEADER_SECTORS);
+        long fileSectors = (channel.size() + SECTOR_BYTES - 1) / SECTOR_BYTES;
+        for (int i = 0; i < CHUNKS_PER_REGION; i++) {
+            int entry = header.getInt(i * Integer.BYTES);
+            if (entry == 0) {
+                continue;
+            }
+            int start = entry >>> 8;
+            int sectors = entry & MAX_SECTORS_PER_RECORD;
+            int overlap = usedSectors.nextSetBit(start);
+            if (start < HEADER_SECTORS || sectors == 0 || start + sectors > fileSectors
+                    || (overlap >= 0 && overlap < start + sectors)) {
+                System.err.println("[RegionFile] Dropping invalid table entry " + i + " in " + file);
+                continue;
+            }
+            offsets[i] = entry;
+            usedSectors.set(start, start + sectors);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of region file " + file);
+            }
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private static int index(ChunkPos pos) {
+        return (pos.cz() & (REGION_SIZE - 1)) * REGION_SIZE + (pos.cx() & (REGION_SIZE - 1));
+    }
+}
@@ -1,11 +1,35 @@
 package com.example.voxelrt.world;
 
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Procedural generator that decides which block occupies a given world coordinate.
+ * <p>
+ * In {@link DensityMode#INTERPOLATED} mode the 3D density and cave fields are sampled on a coarse
+ * lattice (every {@value #LATTICE_STEP_XZ}×{@value #LATTICE_STEP_Y}×{@value #LATTICE_STEP_XZ}
+ * voxels) and trilinearly interpolated in between. Lattice points sit at fixed world coordinates
+ * and chunk borders fall on lattice planes, so adjacent chunks interpolate from identical values
+ * and meet without seams.
+ * <p>
+ * The same mode also samples the low-frequency 2D fields (continental height, mountains,
+ * temperature and moisture) on a grid every {@value #CLIMATE_STEP} blocks and interpolates them
+ * bilinearly. Grid values are grouped into tiles of {@value #CLIMATE_TILE_SIZE} blocks held in a
+ * small lock-free table, so neighbouring chunk jobs on different worker threads reuse the same
+ * samples instead of recomputing them per column.
  */
 public class WorldGenerator {
+    private static final ThreadLocal<ColumnScratch> COLUMN_SCRATCH = ThreadLocal.withInitial(ColumnScratch::new);
+    private static final ThreadLocal<DensityLattice> LATTICE = ThreadLocal.withInitial(DensityLattice::new);
+    static final int LATTICE_STEP_XZ = 4;
+    static final int LATTICE_STEP_Y = 8;
+    private static final int LATTICE_NX = Chunk.SX / LATTICE_STEP_XZ + 1;
+    private static final int LATTICE_NZ = Chunk.SZ / LATTICE_STEP_XZ + 1;
+    private static final int LATTICE_NY = Chunk.SY / LATTICE_STEP_Y + 1;
+    static final int CLIMATE_STEP = 8;
+    static final int CLIMATE_TILE_SIZE = 64;
+    private static final int CLIMATE_NODES = CLIMATE_TILE_SIZE / CLIMATE_STEP + 1;
+    private static final int CLIMATE_CACHE_SLOTS = 256;
     private final long seed;
     private final Noise baseHeight;
     private final Noise hillNoise;
@@ -16,9 +40,16 @@ public class WorldGenerator {
     private final Noise caveNoise;
     private final int seaLevel;
     private final int snowLine;
+    private final DensityMode densityMode;
+    private final AtomicReferenceArray<ClimateTile> climateTiles = new AtomicReferenceArray<>(CLIMATE_CACHE_SLOTS);
 
     public WorldGenerator(long seed, int seaLevel) {
+        this(seed, seaLevel, DensityMode.EXACT);
+    }
+
+    public WorldGenerator(long seed, int seaLevel, DensityMode densityMode) {
         this.seed = seed;
+        this.densityMode = densityMode;
         this.seaLevel = seaLevel;
         this.snowLine = seaLevel + 28;
         long mix = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
@@ -59,12 +90,18 @@ public class WorldGenerator {
         }
 
         double depth = ground - y;
-        double density = depth * 0.12 - 0.35 + densityNoise.fractal3D(x * 0.012, y * 0.015, z * 0.012, 3);
+        DensityLattice lattice = densityMode == DensityMode.INTERPOLATED ? lattice(x, z, y + 1) : null;
+        double densityValue = lattice != null
+                ? lattice.sample(lattice.density, x, y, z)
+                : densityNoise.fractal3D(x * 0.012, y * 0.015, z * 0.012, 3);
+        double density = depth * 0.12 - 0.35 + densityValue;
         if (density < 0) {
             return Blocks.AIR;
         }
 
-        double cave = caveNoise.fractal3D(x * 0.035, y * 0.035, z * 0.035, 4);
+        double cave = lattice != null
+                ? lattice.sample(lattice.cave, x, y, z)
+                : caveNoise.fractal3D(x * 0.035, y * 0.035, z * 0.035, 4);
         double caveThreshold = 0.60 - java.lang.Math.min(depth, 32) * 0.018;
         if (caveThreshold < -0.35) {
             caveThreshold = -0.35;
@@ -79,21 +116,150 @@ public class WorldGenerator {
         return column.lowerBlock();
     }
 
+    /**
+     * Writes the blocks of column ({@code x}, {@code z}) for {@code y} in {@code [0, maxY]} to
+     * {@code out}, matching {@link #sampleBlock(Column, int, int, int)} voxel for voxel. Runs the
+     * terrain and carving stages back to back.
+     */
+    public void sampleColumnBlocks(Column column, int x, int z, int maxY, int[] out) {
+        sampleColumnTerrain(column, x, z, maxY, out);
+        carveColumn(column, x, z, maxY, out);
+    }
+
+    /**
+     * Terrain stage: writes the uncarved column ({@code x}, {@code z}) for {@code y} in
+     * {@code [0, maxY]} to {@code out}. The density noise for every voxel below the surface is
+     * evaluated as one batch, or read from the chunk's lattice in interpolated mode.
+     */
+    public void sampleColumnTerrain(Column column, int x, int z, int maxY, int[] out) {
+        int ground = column.groundHeight();
+        int below = java.lang.Math.max(0, java.lang.Math.min(ground, maxY + 1));
+        ColumnScratch scratch = COLUMN_SCRATCH.get();
+        scratch.ensureCapacity(below);
+        double[] xs = scratch.xs, ys = scratch.ys, zs = scratch.zs, noise = scratch.noise;
+
+        DensityLattice lattice = densityMode == DensityMode.INTERPOLATED ? lattice(x, z, below) : null;
+        if (lattice != null) {
+            lattice.column(lattice.density, x, z, below, noise);
+        } else {
+            double densityX = x * 0.012;
+            double densityZ = z * 0.012;
+            for (int y = 0; y < below; y++) {
+                xs[y] = densityX;
+                ys[y] = y * 0.015;
+                zs[y] = densityZ;
+            }
+            densityNoise.fractal3D(xs, ys, zs, noise, below, 3);
+        }
+        for (int y = 0; y < below; y++) {
+            double depth = ground - y;
+            double density = depth * 0.12 - 0.35 + noise[y];
+            if (density < 0) {
+                out[y] = Blocks.AIR;
+            } else if (y >= ground - 3) {
+                out[y] = column.fillerBlock();
+            } else {
+                out[y] = column.lowerBlock();
+            }
+        }
+
+        if (ground >= 0 && ground <= maxY) {
+            out[ground] = sampleBlock(column, x, ground, z);
+        }
+        for (int y = java.lang.Math.max(ground + 1, 0); y <= maxY; y++) {
+            out[y] = Blocks.AIR;
+        }
+    }
+
+    /**
+     * Carving stage: hollows caves out of a column produced by {@link #sampleColumnTerrain}. Cave
+     * noise is evaluated as one batch over only the solid voxels below the surface.
+     */
+    public void carveColumn(Column column, int x, int z, int maxY, int[] blocks) {
+        int ground = column.groundHeight();
+        int below = java.lang.Math.max(0, java.lang.Math.min(ground, maxY + 1));
+        ColumnScratch scratch = COLUMN_SCRATCH.get();
+        scratch.ensureCapacity(below);
+        double[] xs = scratch.xs, ys = scratch.ys, zs = scratch.zs, noise = scratch.noise;
+        int[] solid = scratch.solid;
+        int solidCount = 0;
+        for (int y = 0; y < below; y++) {
+            if (blocks[y] != Blocks.AIR) {
+                solid[solidCount++] = y;
+            }
+        }
+
+        DensityLattice lattice = densityMode == DensityMode.INTERPOLATED ? lattice(x, z, below) : null;
+        if (lattice != null) {
+            lattice.column(lattice.cave, x, z, below, noise);
+        } else {
+            double caveX = x * 0.035;
+            double caveZ = z * 0.035;
+            for (int i = 0; i < solidCount; i++) {
+                xs[i] = caveX;
+                ys[i] = solid[i] * 0.035;
+                zs[i] = caveZ;
+            }
+            caveNoise.fractal3D(xs, ys, zs, noise, solidCount, 4);
+        }
+        for (int i = 0; i < solidCount; i++) {
+            int y = solid[i];
+            double depth = ground - y;
+            double caveThreshold = 0.60 - java.lang.Math.min(depth, 32) * 0.018;
+            if (caveThreshold < -0.35) {
+                caveThreshold = -0.35;
+            }
+            double cave = lattice != null ? noise[y] : noise[i];
+            if (cave > caveThreshold) {
+                blocks[y] = Blocks.AIR;
+            }
+        }
+    }
+
+    /**
+     * Climate stage: computes the column descriptions of a whole chunk. Cheap compared to the 3D
+     * stages, so it can run well ahead of chunk loading for heightmaps and prefetch.
+     */
+    public ChunkClimate sampleClimate(ChunkPos pos) {
+        Column[] columns = new Column[Chunk.SX * Chunk.SZ];
+        int wx0 = pos.cx() * Chunk.SX;
+        int wz0 = pos.cz() * Chunk.SZ;
+        for (int z = 0; z < Chunk.SZ; z++) {
+            for (int x = 0; x < Chunk.SX; x++) {
+                columns[z * Chunk.SX + x] = sampleColumn(wx0 + x, wz0 + z);
+            }
+        }
+        return new ChunkClimate(pos, columns);
+    }
+
     /**
      * Computes the terrain column for the world coordinate (x, z).
      */
     public Column sampleColumn(int x, int z) {
-        double continental = baseHeight.fractal2D(x * 0.002, z * 0.002, 4);
+        double continental;
+        double mountainVal;
+        double tempVal;
+        double moistureVal;
+        if (densityMode == DensityMode.INTERPOLATED) {
+            ClimateTile tile = climateTile(x, z);
+            int lx = x - tile.x0;
+            int lz = z - tile.z0;
+            continental = tile.sample(tile.continental, lx, lz);
+            mountainVal = tile.sample(tile.mountains, lx, lz);
+            tempVal = tile.sample(tile.temperature, lx, lz);
+            moistureVal = tile.sample(tile.moisture, lx, lz);
+        } else {
+            continental = baseHeight.fractal2D(x * 0.002, z * 0.002, 4);
+            mountainVal = mountainNoise.fractal2D(x * 0.0016, z * 0.0016, 5);
+            tempVal = temperature.fractal2D(x * 0.002, z * 0.002, 4);
+            moistureVal = moisture.fractal2D(x * 0.0025, z * 0.0025, 4);
+        }
         double hills = hillNoise.fractal2D(x * 0.02, z * 0.02, 3);
-        double mountainVal = mountainNoise.fractal2D(x * 0.0016, z * 0.0016, 5);
         double mountainMask = java.lang.Math.max(0.0, mountainVal);
         int mountainBoost = (int) java.lang.Math.round(mountainMask * mountainMask * 90.0);
         int base = (int) java.lang.Math.round(continental * 28.0 + hills * 10.0) + seaLevel - 4;
         int ground = base + mountainBoost;
 
-        double tempVal = temperature.fractal2D(x * 0.002, z * 0.002, 4);
-        double moistureVal = moisture.fractal2D(x * 0.0025, z * 0.0025, 4);
-
         Biome biome = selectBiome(ground, mountainBoost, tempVal, moistureVal);
         int surface;
         int filler;
@@ -141,6 +307,45 @@ public class WorldGenerator {
         return Biome.PLAINS;
     }
 
+    /**
+     * Returns the climate tile covering ({@code x}, {@code z}), computing it on a miss. Tiles are
+     * immutable, so a slot is simply overwritten on collision; two threads racing for the same tile
+     * compute identical values and either copy may win.
+     */
+    private ClimateTile climateTile(int x, int z) {
+        int tileX = java.lang.Math.floorDiv(x, CLIMATE_TILE_SIZE);
+        int tileZ = java.lang.Math.floorDiv(z, CLIMATE_TILE_SIZE);
+        long key = ChunkTable.key(tileX, tileZ);
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & (CLIMATE_CACHE_SLOTS - 1);
+        ClimateTile tile = climateTiles.get(slot);
+        if (tile != null && tile.key == key) {
+            return tile;
+        }
+        tile = new ClimateTile(this, key, tileX * CLIMATE_TILE_SIZE, tileZ * CLIMATE_TILE_SIZE);
+        climateTiles.set(slot, tile);
+        return tile;
+    }
+
+    /**
+     * Returns this thread's lattice for the chunk containing ({@code x}, {@code z}) with at least
+     * the levels needed to interpolate the first {@code height} voxels of a column.
+     */
+    private DensityLattice lattice(int x, int z, int height) {
+        DensityLattice lattice = LATTICE.get();
+        int cx = java.lang.Math.floorDiv(x, Chunk.SX);
+        int cz = java.lang.Math.floorDiv(z, Chunk.SZ);
+        if (lattice.owner != this || lattice.cx != cx || lattice.cz != cz) {
+            lattice.reset(this, cx, cz);
+        }
+        lattice.ensureLevels(java.lang.Math.min(LATTICE_NY, (height + LATTICE_STEP_Y - 1) / LATTICE_STEP_Y + 1));
+        return lattice;
+    }
+
+    public DensityMode densityMode() {
+        return densityMode;
+    }
+
     public Random randomForChunk(int chunkX, int chunkZ) {
         long mixed = seed ^ (chunkX * 0x632BE59BD9B4E019L) ^ (chunkZ * 0x94D049BB133111EBL);
         mixed ^= Long.rotateLeft(chunkX * 0x2545F4914F6CDD1DL, 17);
@@ -156,6 +361,21 @@ public class WorldGenerator {
         return snowLine;
     }
 
+    /**
+     * How the 3D density and cave fields are evaluated below the surface.
+     */
+    public enum DensityMode {
+        /**
+         * Full noise evaluation for every voxel.
+         */
+        EXACT,
+        /**
+         * 3D noise evaluated on a coarse lattice and trilinearly interpolated; low-frequency 2D
+         * fields sampled on a sparse grid and bilinearly interpolated.
+         */
+        INTERPOLATED
+    }
+
     public enum Biome {
         PLAINS,
         FOREST,
@@ -164,6 +384,178 @@ public class WorldGenerator {
         MOUNTAINS
     }
 
+    /**
+     * Density and cave noise sampled on the lattice nodes of one chunk, including the nodes on its
+     * far borders. Levels are filled bottom-up on demand, so chunks with low terrain never pay for
+     * the upper lattice.
+     */
+    private static final class DensityLattice {
+        final double[] density = new double[LATTICE_NX * LATTICE_NZ * LATTICE_NY];
+        final double[] cave = new double[LATTICE_NX * LATTICE_NZ * LATTICE_NY];
+        private final double[] xs = new double[LATTICE_NY];
+        private final double[] ys = new double[LATTICE_NY];
+        private final double[] zs = new double[LATTICE_NY];
+        private final double[] values = new double[LATTICE_NY];
+        private final double[] levelValues = new double[LATTICE_NY];
+        WorldGenerator owner;
+        int cx;
+        int cz;
+        private int filledLevels;
+
+        void reset(WorldGenerator owner, int cx, int cz) {
+            this.owner = owner;
+            this.cx = cx;
+            this.cz = cz;
+            this.filledLevels = 0;
+        }
+
+        void ensureLevels(int levels) {
+            if (levels <= filledLevels) {
+                return;
+            }
+            int count = levels - filledLevels;
+            for (int k = 0; k < LATTICE_NZ; k++) {
+                int wz = cz * Chunk.SZ + k * LATTICE_STEP_XZ;
+                for (int i = 0; i < LATTICE_NX; i++) {
+                    int wx = cx * Chunk.SX + i * LATTICE_STEP_XZ;
+                    int base = (k * LATTICE_NX + i) * LATTICE_NY + filledLevels;
+                    for (int j = 0; j < count; j++) {
+                        int wy = (filledLevels + j) * LATTICE_STEP_Y;
+                        xs[j] = wx * 0.012;
+                        ys[j] = wy * 0.015;
+                        zs[j] = wz * 0.012;
+                    }
+                    owner.densityNoise.fractal3D(xs, ys, zs, values, count, 3);
+                    System.arraycopy(values, 0, density, base, count);
+                    for (int j = 0; j < count; j++) {
+                        int wy = (filledLevels + j) * LATTICE_STEP_Y;
+                        xs[j] = wx * 0.035;
+                        ys[j] = wy * 0.035;
+                        zs[j] = wz * 0.035;
+                    }
+                    owner.caveNoise.fractal3D(xs, ys, zs, values, count, 4);
+                    System.arraycopy(values, 0, cave, base, count);
+                }
+            }
+            filledLevels = levels;
+        }
+
+        double sample(double[] field, int x, int y, int z) {
+            int lx = x - cx * Chunk.SX;
+            int lz = z - cz * Chunk.SZ;
+            int i = lx / LATTICE_STEP_XZ;
+            int k = lz / LATTICE_STEP_XZ;
+            int j = y / LATTICE_STEP_Y;
+            double tx = (lx % LATTICE_STEP_XZ) / (double) LATTICE_STEP_XZ;
+            double tz = (lz % LATTICE_STEP_XZ) / (double) LATTICE_STEP_XZ;
+            double ty = (y % LATTICE_STEP_Y) / (double) LATTICE_STEP_Y;
+            double lower = bilinear(field, i, k, j, tx, tz);
+            double upper = bilinear(field, i, k, j + 1, tx, tz);
+            return lower + ty * (upper - lower);
+        }
+
+        /**
+         * Interpolates {@code field} down the column at ({@code x}, {@code z}) for the first
+         * {@code height} voxels. The horizontal blend is done once per level, leaving one lerp per
+         * voxel.
+         */
+        void column(double[] field, int x, int z, int height, double[] out) {
+            if (height <= 0) {
+                return;
+            }
+            int lx = x - cx * Chunk.SX;
+            int lz = z - cz * Chunk.SZ;
+            int i = lx / LATTICE_STEP_XZ;
+            int k = lz / LATTICE_STEP_XZ;
+            double tx = (lx % LATTICE_STEP_XZ) / (double) LATTICE_STEP_XZ;
+            double tz = (lz % LATTICE_STEP_XZ) / (double) LATTICE_STEP_XZ;
+            int levels = (height - 1) / LATTICE_STEP_Y + 2;
+            for (int j = 0; j < levels; j++) {
+                levelValues[j] = bilinear(field, i, k, j, tx, tz);
+            }
+            for (int y = 0; y < height; y++) {
+                int j = y / LATTICE_STEP_Y;
+                double ty = (y % LATTICE_STEP_Y) / (double) LATTICE_STEP_Y;
+                double lower = levelValues[j];
+                out[y] = lower + ty * (levelValues[j + 1] - lower);
+            }
+        }
+
+        private static double bilinear(double[] field, int i, int k, int j, double tx, double tz) {
+            int n00 = (k * LATTICE_NX + i) * LATTICE_NY + j;
+            int n10 = n00 + LATTICE_NY;
+            int n01 = n00 + LATTICE_NX * LATTICE_NY;
+            int n11 = n01 + LATTICE_NY;
+            double north = field[n00] + tx * (field[n10] - field[n00]);
+            double south = field[n01] + tx * (field[n11] - field[n01]);
+            return north + tz * (south - north);
+        }
+    }
+
+    /**
+     * Low-frequency 2D fields sampled every {@value #CLIMATE_STEP} blocks over one
+     * {@value #CLIMATE_TILE_SIZE}-block square, including the nodes on its far edges so that a tile
+     * interpolates on its own.
+     */
+    private static final class ClimateTile {
+        final long key;
+        final int x0;
+        final int z0;
+        final double[] continental = new double[CLIMATE_NODES * CLIMATE_NODES];
+        final double[] mountains = new double[CLIMATE_NODES * CLIMATE_NODES];
+        final double[] temperature = new double[CLIMATE_NODES * CLIMATE_NODES];
+        final double[] moisture = new double[CLIMATE_NODES * CLIMATE_NODES];
+
+        ClimateTile(WorldGenerator gen, long key, int x0, int z0) {
+            this.key = key;
+            this.x0 = x0;
+            this.z0 = z0;
+            for (int k = 0; k < CLIMATE_NODES; k++) {
+                int z = z0 + k * CLIMATE_STEP;
+                for (int i = 0; i < CLIMATE_NODES; i++) {
+                    int x = x0 + i * CLIMATE_STEP;
+                    int node = k * CLIMATE_NODES + i;
+                    continental[node] = gen.baseHeight.fractal2D(x * 0.002, z * 0.002, 4);
+                    mountains[node] = gen.mountainNoise.fractal2D(x * 0.0016, z * 0.0016, 5);
+                    temperature[node] = gen.temperature.fractal2D(x * 0.002, z * 0.002, 4);
+                    moisture[node] = gen.moisture.fractal2D(x * 0.0025, z * 0.0025, 4);
+                }
+            }
+        }
+
+        double sample(double[] field, int lx, int lz) {
+            int i = lx / CLIMATE_STEP;
+            int k = lz / CLIMATE_STEP;
+            double tx = (lx % CLIMATE_STEP) / (double) CLIMATE_STEP;
+            double tz = (lz % CLIMATE_STEP) / (double) CLIMATE_STEP;
+            int n00 = k * CLIMATE_NODES + i;
+            int n01 = n00 + CLIMATE_NODES;
+            double north = field[n00] + tx * (field[n00 + 1] - field[n00]);
+            double south = field[n01] + tx * (field[n01 + 1] - field[n01]);
+            return north + tz * (south - north);
+        }
+    }
+
+    /**
+     * Per-thread buffers for {@link #sampleColumnBlocks}.
+     */
+    private static final class ColumnScratch {
+        double[] xs = new double[0], ys = new double[0], zs = new double[0], noise = new double[0];
+        int[] solid = new int[0];
+
+        void ensureCapacity(int count) {
+            if (xs.length >= count) {
+                return;
+            }
+            int capacity = java.lang.Math.max(count, Chunk.SY);
+            xs = new double[capacity];
+            ys = new double[capacity];
+            zs = new double[capacity];
+            noise = new double[capacity];
+            solid = new int[capacity];
+        }
+    }
+
     public record Column(int groundHeight, int surfaceBlock, int fillerBlock, int lowerBlock,
                          Biome biome, double temperature, double moisture) {
     }
@@ -1,192 +1,392 @@
 package com.example.voxelrt.world;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Persists chunk edits to disk so that player changes survive streaming and restarts.
+ * <p>
+ * Records are grouped into {@link RegionFile}s of {@value RegionFile#REGION_SIZE}×{@value
+ * RegionFile#REGION_SIZE} chunks, one for snapshots and one for edits per region, so a world holds
+ * a few files per region instead of two per chunk and a lookup is a positional read on an already
+ * open channel. At most {@value #MAX_OPEN_REGIONS} region files are kept open, least recently used
+ * first out. Edit regions sync every record write so that a crash never costs a stored edit;
+ * snapshot regions do not, since a snapshot that fails to read is regenerated and has the chunk's
+ * edits applied again. Worlds written with the older one-file-per-chunk layout are migrated into
+ * region files when the storage is opened.
+ * <p>
+ * In {@link ReadMode#MAPPED} mode snapshot reads go through a read-only mapping of each open region
+ * file and hand the compressed payload to the caller as a slice of it, so restoring chunks whose
+ * region is already mapped costs no system call and no heap copy. Mappings live and die with the
+ * open region files.
+ * <p>
+ * Player edits are appended to an {@link EditJournal} and group-committed, so an edit costs a few
+ * bytes of a shared write instead of a rewrite of the chunk's whole edit record. Journaled edits are
+ * kept in memory on top of the per-chunk baseline records and compacted into them when a chunk has
+ * gathered {@value #CHUNK_COMPACTION_EDITS} of them, and for all chunks when the journal outgrows
+ * {@value #JOURNAL_CHECKPOINT_BYTES} bytes, on close and after replay on startup.
+ * <p>
+ * Snapshot saves go through a write-behind queue keyed by chunk: a newer snapshot replaces a queued
+ * older one, reads are answered from the queue until the write lands, and callers block once
+ * {@code maxQueuedSaves} chunks are waiting. {@link #stats()} reports the queue and write counters.
  */
 public class WorldStorage implements AutoCloseable {
     private static final int CHUNK_DATA_FILE_VERSION = 1;
+    // file version, compression version, all-air flag, uncompressed size, non-air count, payload length
+    private static final int CHUNK_DATA_HEADER_BYTES = 4 + 4 + 1 + 4 + 4 + 4;
+    private static final int MAX_OPEN_REGIONS = 64;
+    private static final String DATA_REGION_PREFIX = "data";
+    private static final String EDIT_REGION_PREFIX = "edits";
+    private static final String REGION_SUFFIX = ".vrg";
+    private static final String EDIT_JOURNAL_FILE = "edits.journal";
+    private static final int CHUNK_COMPACTION_EDITS = 4096;
+    private static final long JOURNAL_CHECKPOINT_BYTES = 16L << 20;
+    public static final int DEFAULT_MAX_QUEUED_SAVES = 256;
 
     private final Path baseDir;
-    private final Path chunkEditDir;
-    private final Path chunkDataDir;
+    private final Path regionDir;
+    private final ReadMode readMode;
+    private final RegionCache regions;
     private final ExecutorService ioExecutor;
     private final ConcurrentLinkedQueue<CompletableFuture<Void>> pendingSaves = new ConcurrentLinkedQueue<>();
+    private final EditJournal journal;
+    private final int maxQueuedSaves;
+    private final int writerCount;
+    private final Object saveLock = new Object();
+    private final LinkedHashMap<ChunkPos, ChunkCompression.CompressedChunkData> queuedSaves = new LinkedHashMap<>();
+    private final Map<ChunkPos, ChunkCompression.CompressedChunkData> writingSaves = new HashMap<>();
+    private final LongAdder coalescedSaves = new LongAdder();
+    private final LongAdder writtenChunks = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder backpressureWaits = new LongAdder();
+    private final LongAdder backpressureNanos = new LongAdder();
+    private int activeWriters;
+    private int peakQueuedSaves;
+    private final Object editLock = new Object();
+    private final Map<ChunkPos, ChunkEdits> journaledEdits = new HashMap<>();
+    private final Map<ChunkPos, ChunkEdits> compactingEdits = new HashMap<>();
+    private final Set<ChunkPos> queuedCompactions = new HashSet<>();
+    private final Set<RegionKey> unsyncedEditRegions = new HashSet<>();
 
     public WorldStorage(Path baseDir) {
-        this.baseDir = Objects.requireNonNull(baseDir, "baseDir");
-        try {
-            Files.createDirectories(baseDir);
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to create world directory " + baseDir, ex);
-        }
-        this.chunkEditDir = baseDir.resolve("chunks");
-        try {
-            Files.createDirectories(chunkEditDir);
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to create chunk directory " + chunkEditDir, ex);
+        this(baseDir, ReadMode.CHANNEL);
+    }
+
+    public WorldStorage(Path baseDir, ReadMode readMode) {
+        this(baseDir, readMode, DEFAULT_MAX_QUEUED_SAVES);
+    }
+
+    public WorldStorage(Path baseDir, ReadMode readMode, int maxQueuedSaves) {
+        if (maxQueuedSaves <= 0) {
+            throw new IllegalArgumentException("maxQueuedSaves must be positive");
         }
-        this.chunkDataDir = baseDir.resolve("chunkdata");
+        this.baseDir = Objects.requireNonNull(baseDir, "baseDir");
+        this.readMode = Objects.requireNonNull(readMode, "readMode");
+        this.maxQueuedSaves = maxQueuedSaves;
+        this.regionDir = baseDir.resolve("region");
         try {
-            Files.createDirectories(chunkDataDir);
+            Files.createDirectories(regionDir);
         } catch (IOException ex) {
-            throw new RuntimeException("Failed to create chunk data directory " + chunkDataDir, ex);
+            throw new RuntimeException("Failed to create region directory " + regionDir, ex);
         }
+        this.regions = new RegionCache(regionDir, MAX_OPEN_REGIONS);
+        migrateLegacyFiles(baseDir.resolve("chunks"), ".bin", EDIT_REGION_PREFIX);
+        migrateLegacyFiles(baseDir.resolve("chunkdata"), ".cbin", DATA_REGION_PREFIX);
         int workers = Math.max(1, Runtime.getRuntime().availableProcessors() / 4);
+        this.writerCount = workers;
         this.ioExecutor = Executors.newFixedThreadPool(workers, r -> {
             Thread t = new Thread(r, "WorldStorage-" + Integer.toHexString(r.hashCode()));
             t.setDaemon(true);
             return t;
         });
+        this.journal = openJournal(baseDir.resolve(EDIT_JOURNAL_FILE));
+    }
+
+    /**
+     * Opens the edit journal, replays what a previous run left in it and compacts that into the
+     * baseline records straight away, so every session starts with an empty journal.
+     */
+    private EditJournal openJournal(Path file) {
+        EditJournal opened;
+        try {
+            opened = new EditJournal(file, ioExecutor, JOURNAL_CHECKPOINT_BYTES, this::compactAllEdits);
+            int replayed = opened.replay((pos, x, y, z, block) ->
+                    journaledEdits.computeIfAbsent(pos, k -> new ChunkEdits()).put(x, y, z, block));
+            if (replayed > 0) {
+                System.err.println("[WorldStorage] Replayed " + replayed + " journaled edits from " + file);
+                opened.checkpoint(this::compactAllEdits);
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Failed to open edit journal " + file, ex);
+        }
+        return opened;
     }
 
+    /**
+     * Returns every stored edit of the chunk: its compacted baseline with the journaled edits on top.
+     */
     public List<ChunkEdit> loadChunkEdits(ChunkPos pos) {
         Objects.requireNonNull(pos, "pos");
-        Path file = chunkEditFile(pos);
-        if (!Files.exists(file)) {
-            return Collections.emptyList();
-        }
-        List<ChunkEdit> edits = new ArrayList<>();
-        try (InputStream in = Files.newInputStream(file); DataInputStream data = new DataInputStream(in)) {
-            int count = data.readInt();
-            for (int i = 0; i < count; i++) {
-                int x = data.readUnsignedByte();
-                int y = data.readUnsignedShort();
-                int z = data.readUnsignedByte();
-                int block = data.readInt();
-                edits.add(new ChunkEdit(x, y, z, block));
+        // Take the journaled edits before reading the baseline: a compaction finishing in between
+        // only moves them into the baseline, so both orders of the two reads see every edit.
+        ChunkEdits overlay = null;
+        synchronized (editLock) {
+            ChunkEdits compacting = compactingEdits.get(pos);
+            ChunkEdits journaled = journaledEdits.get(pos);
+            if (compacting != null || journaled != null) {
+                overlay = new ChunkEdits();
+                if (compacting != null) {
+                    overlay.putAll(compacting);
+                }
+                if (journaled != null) {
+                    overlay.putAll(journaled);
+                }
             }
+        }
+        List<ChunkEdit> baseline;
+        try {
+            baseline = readBaselineEdits(pos);
         } catch (IOException ex) {
             System.err.println("[WorldStorage] Failed to read edits for chunk " + pos + ": " + ex.getMessage());
-            return Collections.emptyList();
+            baseline = Collections.emptyList();
         }
-        return edits;
+        if (overlay == null) {
+            return baseline;
+        }
+        ChunkEdits merged = toChunkEdits(baseline);
+        merged.putAll(overlay);
+        return merged.toList();
     }
 
-    public void saveChunkEditsAsync(ChunkPos pos, List<ChunkEdit> edits) {
-        if (edits == null) {
-            edits = Collections.emptyList();
+    /**
+     * Records one player edit. The edit is visible to {@link #loadChunkEdits} immediately and is
+     * made durable by the next group commit of the edit journal; {@link #waitForPendingSaves()}
+     * waits for that commit.
+     */
+    public void appendEdit(ChunkPos pos, int x, int y, int z, int block) {
+        Objects.requireNonNull(pos, "pos");
+        if (x < 0 || x >= Chunk.SX || y < 0 || y >= Chunk.SY || z < 0 || z >= Chunk.SZ) {
+            throw new IllegalArgumentException("Edit outside chunk bounds: " + x + ", " + y + ", " + z);
+        }
+        if ((block & 0xFFFFFF00) != 0) {
+            throw new IllegalArgumentException("Block ID out of range for byte storage: " + block);
         }
-        List<ChunkEdit> snapshot = new ArrayList<>(edits);
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> saveChunkEdits(pos, snapshot), ioExecutor);
-        pendingSaves.add(future);
+        boolean compact;
+        synchronized (editLock) {
+            ChunkEdits journaled = journaledEdits.computeIfAbsent(pos, k -> new ChunkEdits());
+            journaled.put(x, y, z, block);
+            // Appended under the same lock so that the journal orders edits like the overlay does.
+            journal.append(pos, x, y, z, block);
+            // A failed compaction puts its edits back, so the next append past the threshold retries.
+            compact = journaled.size() >= CHUNK_COMPACTION_EDITS && queuedCompactions.add(pos);
+        }
+        if (compact) {
+            CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+                try {
+                    journal.exclusive(() -> compactChunkEdits(pos));
+                } catch (IOException ex) {
+                    System.err.println("[WorldStorage] Failed to compact edits for chunk " + pos + ": " + ex.getMessage());
+                } finally {
+                    synchronized (editLock) {
+                        queuedCompactions.remove(pos);
+                    }
+                }
+            }, ioExecutor);
+            pendingSaves.add(future);
+            future.whenComplete((ignored, error) -> pendingSaves.remove(future));
+        }
+    }
+
+    public void saveChunkEditsAsync(ChunkPos pos, List<ChunkEdit> edits) {
+        saveChunkEdits(pos, edits);
     }
 
+    /**
+     * Records {@code edits} on top of the chunk's stored edits. Edits are never removed, so this
+     * only appends to the edit journal; it no longer rewrites the chunk's edit record.
+     */
     public void saveChunkEdits(ChunkPos pos, List<ChunkEdit> edits) {
         Objects.requireNonNull(pos, "pos");
-        List<ChunkEdit> list = edits == null ? Collections.emptyList() : edits;
-        Path file = chunkEditFile(pos);
-        if (list.isEmpty()) {
-            try {
-                Files.deleteIfExists(file);
-            } catch (IOException ex) {
-                System.err.println("[WorldStorage] Failed to delete empty chunk file " + file + ": " + ex.getMessage());
-            }
+        if (edits == null) {
             return;
         }
-        try {
-            Files.createDirectories(file.getParent());
-        } catch (IOException ex) {
-            System.err.println("[WorldStorage] Failed to create parent directories for " + file + ": " + ex.getMessage());
-        }
-        try (OutputStream out = Files.newOutputStream(file); DataOutputStream data = new DataOutputStream(out)) {
-            data.writeInt(list.size());
-            for (ChunkEdit edit : list) {
-                data.writeByte(edit.x());
-                data.writeShort(edit.y());
-                data.writeByte(edit.z());
-                data.writeInt(edit.block());
-            }
-        } catch (IOException ex) {
-            System.err.println("[WorldStorage] Failed to write edits for chunk " + pos + ": " + ex.getMessage());
+        for (ChunkEdit edit : edits) {
+            appendEdit(pos, edit.x(), edit.y(), edit.z(), edit.block());
         }
     }
 
     public ChunkCompression.CompressedChunkData loadChunkData(ChunkPos pos) {
+        return readChunkData(pos, payload -> {
+            ByteBuffer compressed = payload.compressed();
+            byte[] bytes = new byte[compressed.remaining()];
+            compressed.get(compressed.position(), bytes);
+            return new ChunkCompression.CompressedChunkData(bytes, payload.uncompressedSize(), payload.nonAir(),
+                    payload.allAir(), payload.formatVersion());
+        });
+    }
+
+    /**
+     * Passes the chunk's stored snapshot to {@code reader} and returns its result, or returns
+     * {@code null} without calling it when there is no readable snapshot. The payload buffer may
+     * be a view of a mapped region file and is only valid during the call, which holds the
+     * region's read lock; decode it there rather than keeping it. Reads of the same region run
+     * concurrently, while writes to it wait for them.
+     */
+    public <T> T readChunkData(ChunkPos pos, ChunkDataReader<T> reader) {
         Objects.requireNonNull(pos, "pos");
-        Path file = chunkDataFile(pos);
-        if (!Files.exists(file)) {
-            return null;
+        Objects.requireNonNull(reader, "reader");
+        ChunkCompression.CompressedChunkData unwritten;
+        synchronized (saveLock) {
+            unwritten = queuedSaves.get(pos);
+            if (unwritten == null) {
+                unwritten = writingSaves.get(pos);
+            }
         }
-        try (InputStream in = Files.newInputStream(file); DataInputStream data = new DataInputStream(in)) {
-            int fileVersion = data.readInt();
-            if (fileVersion != CHUNK_DATA_FILE_VERSION) {
-                System.err.println("[WorldStorage] Unsupported chunk data file version " + fileVersion + " for " + pos);
-                return null;
+        if (unwritten != null) {
+            return reader.read(unwritten.view());
+        }
+        try {
+            if (readMode == ReadMode.CHANNEL) {
+                byte[] record = readRecord(DATA_REGION_PREFIX, pos);
+                ChunkCompression.PayloadView payload = record == null ? null : parseChunkData(pos, ByteBuffer.wrap(record));
+                return payload == null ? null : reader.read(payload);
             }
-            int compressionVersion = data.readInt();
-            if (compressionVersion != ChunkCompression.currentFormatVersion()) {
-                System.err.println("[WorldStorage] Unsupported chunk compression version " + compressionVersion + " for " + pos);
-                return null;
+            RegionKey key = RegionKey.of(DATA_REGION_PREFIX, pos);
+            while (true) {
+                RegionFile region = regions.get(key, false);
+                if (region == null) {
+                    return null;
+                }
+                // Shared, so restores from one region decode in parallel; writers wait for them.
+                Lock lock = region.lock().readLock();
+                lock.lock();
+                try {
+                    if (!region.isClosed()) {
+                        ByteBuffer record = region.readMapped(pos);
+                        ChunkCompression.PayloadView payload = record == null ? null : parseChunkData(pos, record);
+                        return payload == null ? null : reader.read(payload);
+                    }
+                } finally {
+                    lock.unlock();
+                }
             }
-            boolean allAir = data.readBoolean();
-            int uncompressedSize = data.readInt();
-            int nonAir = data.readInt();
-            int compressedLength = data.readInt();
-            byte[] compressed = new byte[compressedLength];
-            data.readFully(compressed);
-            return new ChunkCompression.CompressedChunkData(compressed, uncompressedSize, nonAir, allAir, compressionVersion);
         } catch (IOException ex) {
             System.err.println("[WorldStorage] Failed to read chunk data for " + pos + ": " + ex.getMessage());
             return null;
         }
     }
 
+    /**
+     * Queues a snapshot for writing. A snapshot still queued for the same chunk is replaced rather
+     * than written twice. When {@code maxQueuedSaves} chunks are already waiting, the caller
+     * blocks until a writer has taken one, which bounds the heap held by unwritten snapshots.
+     */
     public void saveChunkDataAsync(ChunkPos pos, ChunkCompression.CompressedChunkData data) {
-        ChunkCompression.CompressedChunkData snapshot = data;
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> saveChunkData(pos, snapshot), ioExecutor);
-        pendingSaves.add(future);
+        Objects.requireNonNull(pos, "pos");
+        Objects.requireNonNull(data, "data");
+        synchronized (saveLock) {
+            if (queuedSaves.containsKey(pos)) {
+                queuedSaves.put(pos, data);
+                coalescedSaves.increment();
+                return;
+            }
+            if (queuedSaves.size() >= maxQueuedSaves) {
+                long waitStart = System.nanoTime();
+                backpressureWaits.increment();
+                try {
+                    while (queuedSaves.size() >= maxQueuedSaves && !queuedSaves.containsKey(pos)) {
+                        saveLock.wait();
+                    }
+                } catch (InterruptedException ex) {
+                    // Never drop the snapshot; let the queue run over its limit instead.
+                    Thread.currentThread().interrupt();
+                } finally {
+                    backpressureNanos.add(System.nanoTime() - waitStart);
+                }
+                if (queuedSaves.containsKey(pos)) {
+                    queuedSaves.put(pos, data);
+                    coalescedSaves.increment();
+                    return;
+                }
+            }
+            queuedSaves.put(pos, data);
+            peakQueuedSaves = java.lang.Math.max(peakQueuedSaves, queuedSaves.size());
+            if (activeWriters < writerCount) {
+                activeWriters++;
+                ioExecutor.execute(this::drainQueuedSaves);
+            }
+        }
     }
 
     public void saveChunkData(ChunkPos pos, ChunkCompression.CompressedChunkData data) {
         Objects.requireNonNull(pos, "pos");
         Objects.requireNonNull(data, "data");
-        Path file = chunkDataFile(pos);
-        try {
-            Files.createDirectories(file.getParent());
-        } catch (IOException ex) {
-            System.err.println("[WorldStorage] Failed to create parent directories for " + file + ": " + ex.getMessage());
-        }
-        try (OutputStream out = Files.newOutputStream(file); DataOutputStream dataOut = new DataOutputStream(out)) {
+        byte[] compressed = data.compressed();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(6 * Integer.BYTES + compressed.length);
+        try (DataOutputStream dataOut = new DataOutputStream(bytes)) {
             dataOut.writeInt(CHUNK_DATA_FILE_VERSION);
             dataOut.writeInt(data.formatVersion());
             dataOut.writeBoolean(data.allAir());
             dataOut.writeInt(data.uncompressedSize());
             dataOut.writeInt(data.nonAir());
-            byte[] compressed = data.compressed();
             dataOut.writeInt(compressed.length);
             dataOut.write(compressed);
+            writeRecord(DATA_REGION_PREFIX, pos, bytes.toByteArray());
         } catch (IOException ex) {
             System.err.println("[WorldStorage] Failed to write chunk data for " + pos + ": " + ex.getMessage());
         }
     }
 
     public void waitForPendingSaves() {
+        synchronized (saveLock) {
+            while (!queuedSaves.isEmpty() || !writingSaves.isEmpty()) {
+                try {
+                    saveLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
         CompletableFuture<Void> future;
         while ((future = pendingSaves.poll()) != null) {
             future.join();
         }
+        journal.awaitDurable();
     }
 
     @Override
     public void close() {
         waitForPendingSaves();
+        try {
+            journal.checkpoint(this::compactAllEdits);
+        } catch (IOException ex) {
+            System.err.println("[WorldStorage] Failed to compact the edit journal, it will be replayed on next start: " + ex.getMessage());
+        }
         ioExecutor.shutdown();
         try {
             if (!ioExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
@@ -196,16 +396,420 @@ public class WorldStorage implements AutoCloseable {
             Thread.currentThread().interrupt();
             ioExecutor.shutdownNow();
         }
+        try {
+            journal.close();
+        } catch (IOException ex) {
+            System.err.println("[WorldStorage] Failed to close the edit journal: " + ex.getMessage());
+        }
+        regions.closeAll();
+    }
+
+    /**
+     * Current depth of the write-behind queue and cumulative write counters since startup.
+     */
+    public StorageStats stats() {
+        synchronized (saveLock) {
+            return new StorageStats(queuedSaves.size(), writingSaves.size(), peakQueuedSaves, maxQueuedSaves,
+                    coalescedSaves.sum(), writtenChunks.sum(), bytesWritten.sum() + journal.bytesWritten(),
+                    backpressureWaits.sum(), backpressureNanos.sum());
+        }
+    }
+
+    /**
+     * Writer loop: takes the oldest queued snapshot whose chunk is not being written by another
+     * writer, so two snapshots of one chunk never race, and exits when nothing is left for it.
+     */
+    private void drainQueuedSaves() {
+        while (true) {
+            ChunkPos pos = null;
+            ChunkCompression.CompressedChunkData data = null;
+            synchronized (saveLock) {
+                for (Iterator<Map.Entry<ChunkPos, ChunkCompression.CompressedChunkData>> it = queuedSaves.entrySet().iterator(); it.hasNext(); ) {
+                    Map.Entry<ChunkPos, ChunkCompression.CompressedChunkData> entry = it.next();
+                    if (!writingSaves.containsKey(entry.getKey())) {
+                        pos = entry.getKey();
+                        data = entry.getValue();
+                        it.remove();
+                        break;
+                    }
+                }
+                if (pos == null) {
+                    activeWriters--;
+                    saveLock.notifyAll();
+                    return;
+                }
+                writingSaves.put(pos, data);
+                saveLock.notifyAll();
+            }
+            try {
+                saveChunkData(pos, data);
+                writtenChunks.increment();
+            } finally {
+                synchronized (saveLock) {
+                    writingSaves.remove(pos);
+                    saveLock.notifyAll();
+                }
+            }
+        }
+    }
+
+    private List<ChunkEdit> readBaselineEdits(ChunkPos pos) throws IOException {
+        byte[] record = readRecord(EDIT_REGION_PREFIX, pos);
+        if (record == null) {
+            return Collections.emptyList();
+        }
+        List<ChunkEdit> edits = new ArrayList<>();
+        try (DataInputStream data = new DataInputStream(new ByteArrayInputStream(record))) {
+            int count = data.readInt();
+            for (int i = 0; i < count; i++) {
+                int x = data.readUnsignedByte();
+                int y = data.readUnsignedShort();
+                int z = data.readUnsignedByte();
+                int block = data.readInt();
+                edits.add(new ChunkEdit(x, y, z, block));
+            }
+        }
+        return edits;
+    }
+
+    private void writeBaselineEdits(ChunkPos pos, List<ChunkEdit> edits) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Integer.BYTES + edits.size() * 8);
+        try (DataOutputStream data = new DataOutputStream(bytes)) {
+            data.writeInt(edits.size());
+            for (ChunkEdit edit : edits) {
+                data.writeByte(edit.x());
+                data.writeShort(edit.y());
+                data.writeByte(edit.z());
+                data.writeInt(edit.block());
+            }
+        }
+        writeRecord(EDIT_REGION_PREFIX, pos, bytes.toByteArray());
+    }
+
+    private static ChunkEdits toChunkEdits(List<ChunkEdit> edits) {
+        ChunkEdits result = new ChunkEdits();
+        for (ChunkEdit edit : edits) {
+            if (edit.x() < Chunk.SX && edit.z() < Chunk.SZ && edit.y() < Chunk.SY) {
+                result.put(edit.x(), edit.y(), edit.z(), edit.block());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the chunk's journaled edits into its baseline record. Runs under the journal's file
+     * lock, so it never overlaps another compaction or a checkpoint. While the baseline is being
+     * rewritten the edits stay readable from {@link #compactingEdits}; if the write fails they go
+     * back to the journaled set and the failure is rethrown so a checkpoint keeps the journal.
+     */
+    private void compactChunkEdits(ChunkPos pos) throws IOException {
+        ChunkEdits pending;
+        synchronized (editLock) {
+            pending = journaledEdits.remove(pos);
+            if (pending == null) {
+                return;
+            }
+            compactingEdits.put(pos, pending);
+        }
+        boolean compacted = false;
+        try {
+            ChunkEdits merged = toChunkEdits(readBaselineEdits(pos));
+            merged.putAll(pending);
+            writeBaselineEdits(pos, merged.toList());
+            compacted = true;
+        } finally {
+            synchronized (editLock) {
+                compactingEdits.remove(pos);
+                if (!compacted) {
+                    ChunkEdits newer = journaledEdits.get(pos);
+                    if (newer != null) {
+                        pending.putAll(newer);
+                    }
+                    journaledEdits.put(pos, pending);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compacts every chunk's journaled edits and forces the edit regions written since the last
+     * checkpoint, including by per-chunk compactions, so the journal can be truncated after it.
+     */
+    private void compactAllEdits() throws IOException {
+        List<ChunkPos> positions;
+        synchronized (editLock) {
+            positions = new ArrayList<>(journaledEdits.keySet());
+        }
+        for (ChunkPos pos : positions) {
+            compactChunkEdits(pos);
+        }
+        syncEditRegions();
+    }
+
+    private void syncEditRegions() throws IOException {
+        List<RegionKey> keys;
+        synchronized (unsyncedEditRegions) {
+            keys = new ArrayList<>(unsyncedEditRegions);
+            unsyncedEditRegions.clear();
+        }
+        try {
+            for (RegionKey key : keys) {
+                RegionFile region = regions.get(key, false);
+                if (region == null) {
+                    continue;
+                }
+                // A region closed in the meantime was forced by its close.
+                Lock lock = region.lock().writeLock();
+                lock.lock();
+                try {
+                    if (!region.isClosed()) {
+                        region.force();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } catch (IOException ex) {
+            synchronized (unsyncedEditRegions) {
+                unsyncedEditRegions.addAll(keys);
+            }
+            throw ex;
+        }
+    }
+
+    private byte[] readRecord(String prefix, ChunkPos pos) throws IOException {
+        RegionKey key = RegionKey.of(prefix, pos);
+        while (true) {
+            RegionFile region = regions.get(key, false);
+            if (region == null) {
+                return null;
+            }
+            Lock lock = region.lock().readLock();
+            lock.lock();
+            try {
+                if (!region.isClosed()) {
+                    return region.read(pos);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void writeRecord(String prefix, ChunkPos pos, byte[] payload) throws IOException {
+        RegionKey key = RegionKey.of(prefix, pos);
+        while (true) {
+            RegionFile region = regions.get(key, true);
+            Lock lock = region.lock().writeLock();
+            lock.lock();
+            try {
+                if (!region.isClosed()) {
+                    region.write(pos, payload);
+                    bytesWritten.add(payload.length);
+                    if (EDIT_REGION_PREFIX.equals(prefix)) {
+                        synchronized (unsyncedEditRegions) {
+                            unsyncedEditRegions.add(key);
+                        }
+                    }
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
-    private Path chunkEditFile(ChunkPos pos) {
-        return chunkEditDir.resolve(pos.cx() + "_" + pos.cz() + ".bin");
+    /**
+     * Parses a snapshot record, returning a view whose payload is a slice of {@code record}, or
+     * {@code null} when the record cannot be used by this build.
+     */
+    private static ChunkCompression.PayloadView parseChunkData(ChunkPos pos, ByteBuffer record) throws IOException {
+        if (record.remaining() < CHUNK_DATA_HEADER_BYTES) {
+            throw new IOException("Chunk data record of " + record.remaining() + " bytes is truncated");
+        }
+        int base = record.position();
+        int fileVersion = record.getInt(base);
+        if (fileVersion != CHUNK_DATA_FILE_VERSION) {
+            System.err.println("[WorldStorage] Unsupported chunk data file version " + fileVersion + " for " + pos);
+            return null;
+        }
+        int compressionVersion = record.getInt(base + 4);
+        if (!ChunkCompression.isSupported(compressionVersion)) {
+            System.err.println("[WorldStorage] Unsupported chunk compression version " + compressionVersion + " for " + pos);
+            return null;
+        }
+        boolean allAir = record.get(base + 8) != 0;
+        int uncompressedSize = record.getInt(base + 9);
+        int nonAir = record.getInt(base + 13);
+        int compressedLength = record.getInt(base + 17);
+        if (compressedLength < 0 || compressedLength > record.remaining() - CHUNK_DATA_HEADER_BYTES) {
+            throw new IOException("Chunk data record is truncated: payload of " + compressedLength + " bytes");
+        }
+        ByteBuffer compressed = record.slice(base + CHUNK_DATA_HEADER_BYTES, compressedLength);
+        return new ChunkCompression.PayloadView(compressed, uncompressedSize, nonAir, allAir, compressionVersion);
     }
 
-    private Path chunkDataFile(ChunkPos pos) {
-        return chunkDataDir.resolve(pos.cx() + "_" + pos.cz() + ".cbin");
+    /**
+     * Moves every {@code {cx}_{cz}<suffix>} file of the one-file-per-chunk layout in
+     * {@code legacyDir} into the region files. Region records hold the same bytes as the legacy
+     * files, so this is a copy; legacy files are deleted once their records are written and the
+     * edit regions forced, which makes an interrupted migration safe to resume.
+     */
+    private void migrateLegacyFiles(Path legacyDir, String suffix, String prefix) {
+        if (!Files.isDirectory(legacyDir)) {
+            return;
+        }
+        List<Path> migrated = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(legacyDir, "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String[] coords = name.substring(0, name.length() - suffix.length()).split("_");
+                ChunkPos pos;
+                try {
+                    pos = new ChunkPos(Integer.parseInt(coords[0]), Integer.parseInt(coords[1]));
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+                    System.err.println("[WorldStorage] Skipping unrecognised legacy chunk file " + file);
+                    continue;
+                }
+                try {
+                    writeRecord(prefix, pos, Files.readAllBytes(file));
+                    migrated.add(file);
+                } catch (IOException ex) {
+                    System.err.println("[WorldStorage] Failed to migrate legacy chunk file " + file + ": " + ex.getMessage());
+                }
+            }
+        } catch (IOException ex) {
+            System.err.println("[WorldStorage] Failed to list legacy chunk directory " + legacyDir + ": " + ex.getMessage());
+            return;
+        }
+        try {
+            syncEditRegions();
+            for (Path file : migrated) {
+                Files.delete(file);
+            }
+            Files.deleteIfExists(legacyDir);
+        } catch (IOException ex) {
+            System.err.println("[WorldStorage] Leaving legacy chunk directory " + legacyDir + ": " + ex.getMessage());
+        }
+        if (!migrated.isEmpty()) {
+            System.err.println("[WorldStorage] Migrated " + migrated.size() + " legacy chunk files from " + legacyDir + " into region files");
+        }
     }
 
     public record ChunkEdit(int x, int y, int z, int block) {
     }
+
+    /**
+     * How snapshot records are read from region files.
+     */
+    public enum ReadMode {
+        /**
+         * Positional reads into a fresh heap buffer per record.
+         */
+        CHANNEL,
+        /**
+         * Slices of a read-only memory mapping of each open region file.
+         */
+        MAPPED
+    }
+
+    /**
+     * Write-behind queue depth and write counters. {@code bytesWritten} counts region record
+     * payloads and journal bytes.
+     */
+    public record StorageStats(int queuedSaves, int writingSaves, int peakQueuedSaves, int maxQueuedSaves,
+                               long coalescedSaves, long writtenChunks, long bytesWritten,
+                               long backpressureWaits, long backpressureNanos) {
+    }
+
+    @FunctionalInterface
+    public interface ChunkDataReader<T> {
+        T read(ChunkCompression.PayloadView payload);
+    }
+
+    /**
+     * Identifies one region file; lookups use this instead of building a path per access.
+     */
+    private record RegionKey(String prefix, int rx, int rz) {
+        static RegionKey of(String prefix, ChunkPos pos) {
+            return new RegionKey(prefix, RegionFile.regionCoord(pos.cx()), RegionFile.regionCoord(pos.cz()));
+        }
+
+        Path resolve(Path regionDir) {
+            return regionDir.resolve(prefix + "." + rx + "." + rz + REGION_SUFFIX);
+        }
+    }
+
+    /**
+     * Bounded LRU of open region files. A file evicted while another thread holds it is closed
+     * under the region's write lock, and callers that then find it closed simply look it up again.
+     * Regions known not to exist on disk are remembered so that reads of unexplored regions do
+     * not touch the filesystem.
+     */
+    private static final class RegionCache {
+        private final Path regionDir;
+        private final int capacity;
+        private final LinkedHashMap<RegionKey, RegionFile> open = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<RegionKey> missing = new HashSet<>();
+
+        RegionCache(Path regionDir, int capacity) {
+            this.regionDir = regionDir;
+            this.capacity = capacity;
+        }
+
+        /**
+         * Returns the open region file for {@code key}, opening it if needed. Without
+         * {@code create}, returns {@code null} for a region that has no file yet.
+         */
+        RegionFile get(RegionKey key, boolean create) throws IOException {
+            RegionFile evicted = null;
+            RegionFile region;
+            synchronized (this) {
+                region = open.get(key);
+                if (region != null) {
+                    return region;
+                }
+                Path file = key.resolve(regionDir);
+                if (!create && (missing.contains(key) || !Files.exists(file))) {
+                    missing.add(key);
+                    return null;
+                }
+                region = new RegionFile(file, EDIT_REGION_PREFIX.equals(key.prefix()));
+                missing.remove(key);
+                open.put(key, region);
+                if (open.size() > capacity) {
+                    Iterator<RegionFile> eldest = open.values().iterator();
+                    evicted = eldest.next();
+                    eldest.remove();
+                }
+            }
+            if (evicted != null) {
+                closeQuietly(evicted);
+            }
+            return region;
+        }
+
+        void closeAll() {
+            List<RegionFile> regions;
+            synchronized (this) {
+                regions = new ArrayList<>(open.values());
+                open.clear();
+            }
+            for (RegionFile region : regions) {
+                closeQuietly(region);
+            }
+        }
+
+        private static void closeQuietly(RegionFile region) {
+            Lock lock = region.lock().writeLock();
+            lock.lock();
+            try {
+                region.close();
+            } catch (IOException ex) {
+                System.err.println("[WorldStorage] Failed to close region file: " + ex.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
 }
@@ -0,0 +1,169 @@
+package com.example.voxelrt.world;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Frozen, lock-free view of the resident world published by {@link ChunkManager#publishView()}.
+ * <p>
+ * A view pairs an immutable table of frozen chunk copies with copies of the player edits as they
+ * stood at publication. Reads never call {@link ChunkManager#update()}, never load or generate
+ * chunks and never take a lock, so any number of worker threads can query the same state in
+ * parallel; positions that were not resident read as air. Later writes to the live chunks copy
+ * the affected sections first, so a view reads the same for its whole lifetime and can simply be
+ * dropped when no longer needed. Obtain the latest one with {@link ChunkManager#latestView()}.
+ */
+public final class WorldView {
+    private final long sequence;
+    private final long[] keys;
+    private final Chunk[] chunks;
+    private final int size;
+    private final Map<Long, ChunkEdits> edits;
+
+    WorldView(long sequence, Map<Long, ChunkEdits> edits, List<ChunkTable.Node> entries) {
+        this.sequence = sequence;
+        this.edits = edits;
+        int capacity = Integer.highestOneBit(java.lang.Math.max(4, entries.size()) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.chunks = new Chunk[capacity];
+        int count = 0;
+        for (ChunkTable.Node entry : entries) {
+            int slot = slot(entry.key);
+            while (chunks[slot] != null && keys[slot] != entry.key) {
+                slot = (slot + 1) & (capacity - 1);
+            }
+            if (chunks[slot] == null) {
+                count++;
+            }
+            keys[slot] = entry.key;
+            chunks[slot] = entry.chunk.frozenCopy();
+        }
+        this.size = count;
+    }
+
+    /**
+     * Publication number of this view; later views have larger numbers.
+     */
+    public long sequence() {
+        return sequence;
+    }
+
+    public int chunkCount() {
+        return size;
+    }
+
+    /**
+     * Returns a frozen copy of the chunk that was resident at the given chunk coordinates, or
+     * {@code null}. The copy must not be modified.
+     */
+    public Chunk chunk(int cx, int cz) {
+        long key = ChunkTable.key(cx, cz);
+        int slot = slot(key);
+        Chunk chunk;
+        while ((chunk = chunks[slot]) != null) {
+            if (keys[slot] == key) {
+                return chunk;
+            }
+            slot = (slot + 1) & (chunks.length - 1);
+        }
+        return null;
+    }
+
+    public Chunk chunk(ChunkPos pos) {
+        return chunk(pos.cx(), pos.cz());
+    }
+
+    /**
+     * Samples a block from world space coordinates, taking the frozen edits into account.
+     */
+    public int get(int x, int y, int z) {
+        if (y < 0 || y >= Chunk.SY) {
+            return Blocks.AIR;
+        }
+        int cx = java.lang.Math.floorDiv(x, Chunk.SX);
+        int cz = java.lang.Math.floorDiv(z, Chunk.SZ);
+        int localX = java.lang.Math.floorMod(x, Chunk.SX);
+        int localZ = java.lang.Math.floorMod(z, Chunk.SZ);
+        ChunkEdits chunkEdits = edits.get(ChunkTable.key(cx, cz));
+        if (chunkEdits != null) {
+            int edit = chunkEdits.get(localX, y, localZ);
+            if (edit >= 0) {
+                return edit;
+            }
+        }
+        Chunk chunk = chunk(cx, cz);
+        return chunk == null ? Blocks.AIR : chunk.get(localX, y, localZ);
+    }
+
+    public boolean isSolid(int x, int y, int z) {
+        return get(x, y, z) != Blocks.AIR;
+    }
+
+    /**
+     * Reads a world-space box with the same layout and vertical clamping as
+     * {@link ChunkManager#readBox}; columns that were not resident read as air.
+     */
+    public void readBox(int minX, int minY, int minZ, int sx, int sy, int sz, int[] out) {
+        if (sx < 0 || sy < 0 || sz < 0) {
+            throw new IllegalArgumentException("Box size must be non-negative: " + sx + "x" + sy + "x" + sz);
+        }
+        long volume = (long) sx * sy * sz;
+        if (out.length < volume) {
+            throw new IllegalArgumentException("Output holds " + out.length + " voxels, box needs " + volume);
+        }
+        if (volume == 0) {
+            return;
+        }
+        java.util.Arrays.fill(out, 0, (int) volume, Blocks.AIR);
+        int layerStride = sx * sz;
+        int y0 = java.lang.Math.max(minY, 0);
+        int y1 = java.lang.Math.min(minY + sy, Chunk.SY);
+        if (y0 >= y1) {
+            return;
+        }
+        int minChunkX = java.lang.Math.floorDiv(minX, Chunk.SX);
+        int maxChunkX = java.lang.Math.floorDiv(minX + sx - 1, Chunk.SX);
+        int minChunkZ = java.lang.Math.floorDiv(minZ, Chunk.SZ);
+        int maxChunkZ = java.lang.Math.floorDiv(minZ + sz - 1, Chunk.SZ);
+        for (int cz = minChunkZ; cz <= maxChunkZ; cz++) {
+            int chunkZ0 = cz * Chunk.SZ;
+            int z0 = java.lang.Math.max(minZ, chunkZ0) - chunkZ0;
+            int z1 = java.lang.Math.min(minZ + sz, chunkZ0 + Chunk.SZ) - chunkZ0;
+            for (int cx = minChunkX; cx <= maxChunkX; cx++) {
+                int chunkX0 = cx * Chunk.SX;
+                int x0 = java.lang.Math.max(minX, chunkX0) - chunkX0;
+                int x1 = java.lang.Math.min(minX + sx, chunkX0 + Chunk.SX) - chunkX0;
+                int offset = (chunkX0 + x0 - minX) + (chunkZ0 + z0 - minZ) * sx + (y0 - minY) * layerStride;
+                Chunk chunk = chunk(cx, cz);
+                if (chunk != null) {
+                    chunk.copyBoxTo(out, offset, sx, layerStride, x0, y0, z0, x1, y1, z1);
+                }
+                ChunkEdits chunkEdits = edits.get(ChunkTable.key(cx, cz));
+                if (chunkEdits != null) {
+                    chunkEdits.overlay(out, offset, sx, layerStride, x0, y0, z0, x1, y1, z1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Snapshots the chunk at {@code pos} with its neighbour borders as seen by this view, or
+     * returns {@code null} when it was not resident.
+     */
+    public ChunkNeighborhood captureNeighborhood(ChunkPos pos) {
+        Chunk center = chunk(pos);
+        if (center == null) {
+            return null;
+        }
+        return ChunkNeighborhood.capture(center,
+                chunk(pos.cx() - 1, pos.cz()),
+                chunk(pos.cx() + 1, pos.cz()),
+                chunk(pos.cx(), pos.cz() - 1),
+                chunk(pos.cx(), pos.cz() + 1));
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (chunks.length - 1);
+    }
+}